@@ -0,0 +1,567 @@
+package com.example.homes.command;
+
+import java.io.File;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.HomeWriteQueue;
+import com.example.homes.database.SchemaMigration;
+import com.example.homes.gui.GuiItemCache;
+import com.example.homes.gui.HomeGUI;
+import com.example.homes.importer.HomeImporter;
+import com.example.homes.manager.EconomyManager;
+import com.example.homes.manager.HomeDumpManager;
+import com.example.homes.manager.HomeManager;
+import com.example.homes.manager.OfflineHomeCache;
+import com.example.homes.manager.OnlinePlayerIndex;
+import com.example.homes.manager.SoundManager;
+import com.example.homes.manager.TeleportManager;
+import com.example.homes.manager.TpaManager;
+import com.example.homes.manager.WarmupScheduler;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
+
+/**
+ * All commands of the plugin, registered as a Paper Brigadier tree.
+ * Suggestion providers only read in-memory data (home cache, name tries) and run off the main thread;
+ * handlers go through HomeManager's async API, so neither path touches JDBC.
+ */
+public class HomesCommands {
+
+    private final HomesPlugin plugin;
+    private final HomeManager homeManager;
+    private final TeleportManager teleportManager;
+    private final HomeGUI homeGUI;
+    private final SoundManager soundManager;
+    private final EconomyManager economyManager;
+    private final TpaManager tpaManager;
+    private final OnlinePlayerIndex onlinePlayers;
+    private static final String DEFAULT_SKRIPT_CSV = "plugins/Skript/variables.csv";
+
+    public HomesCommands(HomesPlugin plugin, HomeManager homeManager, TeleportManager teleportManager, HomeGUI homeGUI,
+                         SoundManager soundManager, EconomyManager economyManager, TpaManager tpaManager) {
+        this.plugin = plugin;
+        this.homeManager = homeManager;
+        this.teleportManager = teleportManager;
+        this.homeGUI = homeGUI;
+        this.soundManager = soundManager;
+        this.economyManager = economyManager;
+        this.tpaManager = tpaManager;
+        this.onlinePlayers = new OnlinePlayerIndex(plugin);
+    }
+
+    public void register() {
+        plugin.getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event -> {
+            Commands commands = event.registrar();
+
+            commands.register(Commands.literal("home")
+                    .executes(ctx -> usage(ctx, "usage-home", "use-gui-info"))
+                    .then(Commands.argument("name", StringArgumentType.greedyString())
+                            .suggests(this::suggestOwnHomes)
+                            .executes(this::home))
+                    .build(), "ホームにテレポートする");
+
+            commands.register(Commands.literal("sethome")
+                    .executes(ctx -> usage(ctx, "usage-sethome"))
+                    .then(Commands.argument("name", StringArgumentType.greedyString())
+                            .executes(this::setHome))
+                    .build(), "ホームを設定する");
+
+            commands.register(Commands.literal("delhome")
+                    .executes(ctx -> usage(ctx, "usage-delhome"))
+                    .then(Commands.argument("name", StringArgumentType.greedyString())
+                            .suggests(this::suggestOwnHomes)
+                            .executes(this::delHome))
+                    .build(), "ホームを削除する");
+
+            commands.register(Commands.literal("homes")
+                    .executes(this::openGui)
+                    .then(Commands.literal("list").executes(this::listHomes))
+                    .then(Commands.literal("reload")
+                            .requires(source -> source.getSender().hasPermission("homes.reload") || source.getSender().isOp())
+                            .executes(this::reload))
+                    .then(Commands.literal("stats")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .executes(this::stats))
+                    .then(Commands.literal("import-skript")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .executes(ctx -> importSkript(ctx, DEFAULT_SKRIPT_CSV))
+                            // 前回のチェックポイントを破棄して最初から
+                            .then(Commands.literal("restart")
+                                    .executes(ctx -> restartSkriptImport(ctx, DEFAULT_SKRIPT_CSV))
+                                    .then(Commands.argument("file", StringArgumentType.greedyString())
+                                            .executes(ctx -> restartSkriptImport(ctx, StringArgumentType.getString(ctx, "file")))))
+                            // 追記された行を定期的に取り込む
+                            .then(Commands.literal("tail")
+                                    .executes(ctx -> tailSkript(ctx, DEFAULT_SKRIPT_CSV))
+                                    .then(Commands.argument("file", StringArgumentType.greedyString())
+                                            .executes(ctx -> tailSkript(ctx, StringArgumentType.getString(ctx, "file")))))
+                            .then(Commands.literal("stop").executes(this::stopSkriptTail))
+                            .then(Commands.argument("file", StringArgumentType.greedyString())
+                                    .executes(ctx -> importSkript(ctx, StringArgumentType.getString(ctx, "file")))))
+                    // player_homes のスナップショット (/homes export [ファイル], /homes import-dump <ファイル>)
+                    .then(Commands.literal("export")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .executes(ctx -> exportHomes(ctx, null))
+                            .then(Commands.argument("file", StringArgumentType.greedyString())
+                                    .executes(ctx -> exportHomes(ctx, StringArgumentType.getString(ctx, "file")))))
+                    .then(Commands.literal("import-dump")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .then(Commands.argument("file", StringArgumentType.greedyString())
+                                    .executes(ctx -> restoreHomes(ctx, StringArgumentType.getString(ctx, "file")))))
+                    // player_homes -> homes_v2 (バイナリUUID + ワールド辞書) へのオンライン移行
+                    .then(Commands.literal("migrate-schema")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .executes(ctx -> {
+                                homeManager.getSchemaMigration().start(ctx.getSource().getSender());
+                                return Command.SINGLE_SUCCESS;
+                            })
+                            .then(Commands.literal("restart").executes(ctx -> {
+                                homeManager.getSchemaMigration().restart(ctx.getSource().getSender());
+                                return Command.SINGLE_SUCCESS;
+                            })))
+                    // 他プラグインからの移行 (/homes import essentials [フォルダ])
+                    .then(Commands.literal("import")
+                            .requires(source -> source.getSender().hasPermission("homes.admin"))
+                            .then(Commands.argument("format", StringArgumentType.word())
+                                    .suggests(this::suggestImporters)
+                                    .executes(ctx -> importHomes(ctx, null))
+                                    .then(Commands.argument("path", StringArgumentType.greedyString())
+                                            .executes(ctx -> importHomes(ctx, StringArgumentType.getString(ctx, "path"))))))
+                    // /homes <player> 機能は削除されました。代わりに /vhome <player> を使用してください。
+                    .then(Commands.argument("player", StringArgumentType.word())
+                            .executes(this::homesOtherHint))
+                    .build(), "ホーム画面(GUI)を開く");
+
+            commands.register(Commands.literal("vhome")
+                    .executes(ctx -> {
+                        ctx.getSource().getSender().sendMessage(ChatColor.RED + "使用法: /vhome <プレイヤー名>");
+                        return Command.SINGLE_SUCCESS;
+                    })
+                    .then(Commands.argument("player", StringArgumentType.word())
+                            .suggests(this::suggestHomeOwners)
+                            .executes(this::viewHomes))
+                    .build(), "他のプレイヤーの公開ホームを訪問する");
+
+            // TPA Commands
+            OnlinePlayerArgument otherPlayer = new OnlinePlayerArgument(plugin, onlinePlayers, true);
+
+            commands.register(Commands.literal("tpa")
+                    .then(Commands.argument("player", otherPlayer)
+                            .executes(ctx -> tpaRequest(ctx, TpaManager.RequestType.TPA)))
+                    .build(), "テレポートリクエストを送信する");
+
+            commands.register(Commands.literal("tpahere")
+                    .then(Commands.argument("player", otherPlayer)
+                            .executes(ctx -> tpaRequest(ctx, TpaManager.RequestType.TPAHERE)))
+                    .build(), "自分の場所にテレポートさせるリクエストを送信する");
+
+            commands.register(Commands.literal("tpaccept")
+                    .executes(ctx -> tpa(ctx, tpaManager::acceptRequest))
+                    .build(), "テレポートリクエストを承認する");
+
+            commands.register(Commands.literal("tpdeny")
+                    .executes(ctx -> tpa(ctx, tpaManager::denyRequest))
+                    .build(), "テレポートリクエストを拒否する");
+
+            commands.register(Commands.literal("tpcancel")
+                    .then(Commands.argument("player", StringArgumentType.word())
+                            .suggests(this::suggestOtherPlayers)
+                            .executes(ctx -> tpa(ctx, player -> tpaManager.cancelRequest(player, StringArgumentType.getString(ctx, "player")))))
+                    .build(), "テレポートリクエストをキャンセルする");
+
+            commands.register(Commands.literal("tpatoggle")
+                    .executes(ctx -> tpa(ctx, tpaManager::toggleTpa))
+                    .build(), "テレポートリクエストの受信設定を切り替える");
+
+            commands.register(Commands.literal("tpaignore")
+                    .then(Commands.argument("player", StringArgumentType.word())
+                            .suggests(this::suggestOtherPlayers)
+                            .executes(ctx -> tpa(ctx, player -> tpaManager.ignorePlayer(player, StringArgumentType.getString(ctx, "player")))))
+                    .build(), "特定のプレイヤーからのリクエストを無視する");
+
+            commands.register(Commands.literal("back")
+                    .executes(this::back)
+                    .build(), "直前の場所に戻る");
+        });
+    }
+
+    // ---- Suggestions (async, in-memory only) ----
+
+    private int suggestionLimit() {
+        return plugin.getSettings().maxSuggestions;
+    }
+
+    private CompletableFuture<Suggestions> suggestOwnHomes(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+        if (!(ctx.getSource().getSender() instanceof Player player)) {
+            return builder.buildFuture();
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            // Cache-only read; the sender is online so their homes are already loaded
+            for (String name : homeManager.getHomes(player.getUniqueId()).complete(builder.getRemaining(), suggestionLimit())) {
+                builder.suggest(name);
+            }
+            return builder.build();
+        });
+    }
+
+    private CompletableFuture<Suggestions> suggestHomeOwners(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            String prefix = builder.getRemaining();
+            int limit = suggestionLimit();
+
+            // Online players plus players who have public homes (in-memory index, no DB access)
+            // This filters out "random players who joined once" and keeps "active players with homes"
+            // Both lists are already sorted, merge them case-insensitively and drop duplicates
+            TreeMap<String, String> merged = new TreeMap<>();
+            for (String name : onlinePlayers.complete(prefix, limit)) {
+                merged.put(name.toLowerCase(), name);
+            }
+            for (String name : homeManager.getPublicIndex().complete(prefix, limit)) {
+                merged.putIfAbsent(name.toLowerCase(), name);
+            }
+            for (String name : merged.values()) {
+                if (limit-- <= 0) break;
+                builder.suggest(name);
+            }
+            return builder.build();
+        });
+    }
+
+    private CompletableFuture<Suggestions> suggestOtherPlayers(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+        String self = ctx.getSource().getSender().getName();
+        return CompletableFuture.supplyAsync(() -> {
+            int limit = suggestionLimit();
+            // Do NOT include offline players for TPA
+            for (String name : onlinePlayers.complete(builder.getRemaining(), limit + 1)) {
+                if (name.equals(self)) continue;
+                if (limit-- <= 0) break;
+                builder.suggest(name);
+            }
+            return builder.build();
+        });
+    }
+
+    private CompletableFuture<Suggestions> suggestImporters(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+        String prefix = builder.getRemainingLowerCase();
+        for (HomeImporter importer : plugin.getHomeImportManager().getImporters()) {
+            if (importer.getName().startsWith(prefix)) {
+                builder.suggest(importer.getName());
+            }
+        }
+        return builder.buildFuture();
+    }
+
+    // ---- Handlers ----
+
+    private Player requirePlayer(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (sender instanceof Player player) {
+            return player;
+        }
+        sender.sendMessage(plugin.getMessage("only-player"));
+        return null;
+    }
+
+    private int usage(CommandContext<CommandSourceStack> ctx, String... messageKeys) {
+        for (String key : messageKeys) {
+            ctx.getSource().getSender().sendMessage(plugin.getMessage(key));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int reload(CommandContext<CommandSourceStack> ctx) {
+        plugin.reloadSettings();
+        homeManager.reload();
+        ctx.getSource().getSender().sendMessage(plugin.getMessage("reload-success"));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // Path relative to the server directory
+    private int importSkript(CommandContext<CommandSourceStack> ctx, String path) {
+        plugin.getSkriptImportManager().startImport(ctx.getSource().getSender(), new File(path));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int restartSkriptImport(CommandContext<CommandSourceStack> ctx, String path) {
+        plugin.getSkriptImportManager().startImport(ctx.getSource().getSender(), new File(path), true);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int tailSkript(CommandContext<CommandSourceStack> ctx, String path) {
+        plugin.getSkriptImportManager().startTail(ctx.getSource().getSender(), new File(path));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int stopSkriptTail(CommandContext<CommandSourceStack> ctx) {
+        plugin.getSkriptImportManager().stopTail(ctx.getSource().getSender());
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // Path relative to the server directory; the importer's default location if none is given
+    private int importHomes(CommandContext<CommandSourceStack> ctx, String path) {
+        CommandSender sender = ctx.getSource().getSender();
+        String format = StringArgumentType.getString(ctx, "format");
+        HomeImporter importer = plugin.getHomeImportManager().getImporter(format);
+        if (importer == null) {
+            sender.sendMessage(ChatColor.RED + "不明な形式です: " + format);
+            return 0;
+        }
+        plugin.getHomeImportManager().startImport(sender, importer, new File(path != null ? path : importer.getDefaultSource()));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // Path relative to the server directory; plugins/HomesPlugin/exports/ if none is given
+    private int exportHomes(CommandContext<CommandSourceStack> ctx, String path) {
+        HomeDumpManager dumps = plugin.getHomeDumpManager();
+        dumps.startExport(ctx.getSource().getSender(), path != null ? new File(path) : dumps.defaultExportFile());
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int restoreHomes(CommandContext<CommandSourceStack> ctx, String path) {
+        plugin.getHomeDumpManager().startRestore(ctx.getSource().getSender(), new File(path));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int stats(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        HomeWriteQueue queue = homeManager.getWriteQueue();
+        sender.sendMessage(ChatColor.GOLD + "=== HomesPlugin Stats ===");
+        sender.sendMessage(ChatColor.YELLOW + "書き込みキュー: " + ChatColor.WHITE + queue.getQueueDepth() + " 件待機中"
+                + ChatColor.GRAY + " (受付 " + queue.getTotalEnqueued() + ", 統合 " + queue.getTotalCoalesced() + ")");
+        sender.sendMessage(ChatColor.YELLOW + "フラッシュ: " + ChatColor.WHITE + queue.getTotalFlushes() + " 回 / " + queue.getTotalFlushedWrites() + " 件"
+                + ChatColor.GRAY + String.format(" (直近 %.2fms/%d件, 平均 %.2fms, 最大 %.2fms)",
+                        queue.getLastFlushMillis(), queue.getLastBatchSize(), queue.getAverageFlushMillis(), queue.getMaxFlushMillis()));
+        OfflineHomeCache offline = homeManager.getOfflineCache();
+        sender.sendMessage(ChatColor.YELLOW + "オフラインキャッシュ: " + ChatColor.WHITE + offline.size() + "/" + offline.getMaxSize() + " 人"
+                + ChatColor.GRAY + String.format(" (ヒット率 %.1f%%, ヒット %d, ミス %d, 追い出し %d)",
+                        offline.getHitRate() * 100, offline.getHits(), offline.getMisses(), offline.getEvictions()));
+        SchemaMigration migration = homeManager.getSchemaMigration();
+        sender.sendMessage(ChatColor.YELLOW + "スキーマ: " + ChatColor.WHITE + "v" + homeManager.getDatabaseManager().getSchemaVersion()
+                + ChatColor.GRAY + (homeManager.getDatabaseManager().isMigrating()
+                        ? String.format(" (移行中 %d/%d 件%s)", migration.getCopied(), migration.getTotal(), migration.isRunning() ? "" : ", 停止中")
+                        : ""));
+        sender.sendMessage(ChatColor.YELLOW + "公開ホーム所有者: " + ChatColor.WHITE + homeManager.getPublicIndex().size() + " 人");
+        WarmupScheduler warmups = teleportManager.getWarmups();
+        sender.sendMessage(ChatColor.YELLOW + "テレポート待機中: " + ChatColor.WHITE + warmups.getActive() + " 人"
+                + ChatColor.GRAY + String.format(" (開始 %d, 完了 %d, キャンセル %d, 先読みチャンク %d)",
+                        warmups.getStarted(), warmups.getCompleted(), warmups.getCancelled(), teleportManager.getHeldChunks()));
+        sender.sendMessage(ChatColor.YELLOW + "TPAリクエスト: " + ChatColor.WHITE + tpaManager.getPendingRequests() + " 件"
+                + ChatColor.GRAY + String.format(" (期限タイマー %d)", tpaManager.getScheduledExpiries()));
+        sender.sendMessage(ChatColor.YELLOW + "/back 履歴: " + ChatColor.WHITE + tpaManager.getBackHistory().getEntries() + " 件"
+                + ChatColor.GRAY + String.format(" (%d 人)", tpaManager.getBackHistory().getPlayers()));
+        GuiItemCache items = homeGUI.getItemCache();
+        sender.sendMessage(ChatColor.YELLOW + "GUI描画: " + ChatColor.WHITE + items.getRenders() + " 回"
+                + ChatColor.GRAY + String.format(" (平均 %.2fms, 最大 %.2fms, アイコンキャッシュ %d件/ヒット率 %.1f%%)",
+                        items.getAverageRenderMillis(), items.getMaxRenderMillis(), items.getCachedHomes(), items.getIconHitRate() * 100));
+        sender.sendMessage(ChatColor.YELLOW + "GUI差分更新: " + ChatColor.WHITE + items.getUpdates() + " 回"
+                + ChatColor.GRAY + String.format(" (平均 %.1f スロット)", items.getAverageUpdatedSlots()));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int setHome(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+
+        String homeName = StringArgumentType.getString(ctx, "name");
+        homeManager.getHomesAsync(player.getUniqueId()).thenAccept(homes -> {
+            if (!player.isOnline()) return;
+            if (homes.contains(homeName)) {
+                player.sendMessage(plugin.getMessage("home-exists"));
+                return;
+            }
+
+            // Check economy for creating home
+            if (!charge(player, plugin.getSettings().costSetHome)) return;
+
+            homeManager.setHome(player, homeName, player.getLocation());
+            player.sendMessage(plugin.getMessage("home-set").replace("{name}", homeName));
+            // soundManager.play(player, "home-created"); // Optional
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int delHome(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+
+        String homeName = StringArgumentType.getString(ctx, "name");
+        homeManager.getHomesAsync(player.getUniqueId()).thenAccept(homes -> {
+            if (!player.isOnline()) return;
+            if (!homes.contains(homeName)) {
+                player.sendMessage(plugin.getMessage("home-not-found").replace("{name}", homeName));
+                return;
+            }
+
+            homeManager.deleteHome(player, homeName);
+            player.sendMessage(plugin.getMessage("home-deleted").replace("{name}", homeName));
+            soundManager.play(player, "delete-success");
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // /home <name> - Teleport directly
+    private int home(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+
+        String homeName = StringArgumentType.getString(ctx, "name");
+        homeManager.getHomeAsync(player.getUniqueId(), homeName).thenAccept(home -> {
+            if (!player.isOnline()) return;
+            if (home == null) {
+                // /home <player>:<home> 機能は削除されました。
+                // 代わりに /vhome <player> を使用してください。
+                player.sendMessage(plugin.getMessage("home-not-found").replace("{name}", homeName));
+                player.sendMessage(plugin.getMessage("use-gui-info"));
+                return;
+            }
+
+            // Resolve the world only now, right before teleporting
+            Location loc = home.toLocation();
+            if (loc == null) {
+                player.sendMessage(plugin.getMessage("world-not-loaded").replace("{world}", home.worldName()));
+                return;
+            }
+
+            // Teleport cost
+            if (!charge(player, plugin.getSettings().costTeleport)) return;
+
+            teleportManager.teleport(player, loc);
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // Returns false if the player can't pay
+    private boolean charge(Player player, double cost) {
+        if (economyManager == null || !economyManager.hasEconomy()) return true;
+        if (cost <= 0) return true;
+        if (!economyManager.hasMoney(player.getName(), cost)) {
+            player.sendMessage(plugin.getMessage("insufficient-funds").replace("{cost}", economyManager.format(cost)));
+            return false;
+        }
+        economyManager.withdraw(player.getName(), cost);
+        player.sendMessage(plugin.getMessage("payment-success").replace("{cost}", economyManager.format(cost)));
+        return true;
+    }
+
+    private int openGui(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+        homeGUI.open(player);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int listHomes(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+
+        homeManager.getHomesAsync(player.getUniqueId()).thenAccept(homes -> {
+            if (!player.isOnline()) return;
+            if (homes.isEmpty()) {
+                player.sendMessage(plugin.getMessage("no-homes"));
+                return;
+            }
+            player.sendMessage(ChatColor.GOLD + "=== " + plugin.getSettings().gui.title + " ===");
+            for (HomeRecord home : homes.list()) {
+                player.sendMessage(ChatColor.YELLOW + "- " + home.name() + ChatColor.GRAY + " (" +
+                        home.worldName() + ": " + home.blockX() + ", " + home.blockY() + ", " + home.blockZ() + ")");
+            }
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int homesOtherHint(CommandContext<CommandSourceStack> ctx) {
+        ctx.getSource().getSender().sendMessage(ChatColor.YELLOW + "他のプレイヤーのホームを見るには " + ChatColor.GOLD + "/vhome <プレイヤー名>" + ChatColor.YELLOW + " を使用してください。");
+        return Command.SINGLE_SUCCESS;
+    }
+
+    // /vhome <player>
+    private int viewHomes(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+
+        String targetName = StringArgumentType.getString(ctx, "player");
+        // Only the local user cache; getOfflinePlayer(String) may block on a Mojang lookup
+        OfflinePlayer target = Bukkit.getPlayerExact(targetName);
+        if (target == null) {
+            target = Bukkit.getOfflinePlayerIfCached(targetName);
+        }
+        if (target == null || (!target.hasPlayedBefore() && !target.isOnline())) {
+            player.sendMessage(plugin.getMessage("player-not-found"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // If viewing self, just use standard open
+        if (target.getUniqueId().equals(player.getUniqueId())) {
+            homeGUI.open(player);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // Message based on permission
+        String name = target.getName() != null ? target.getName() : targetName;
+        if (player.hasPermission("homes.admin")) {
+            player.sendMessage(plugin.getMessage("admin-view").replace("{player}", name));
+        } else {
+            player.sendMessage(ChatColor.GREEN + name + "の公開ホームを表示します。");
+        }
+
+        homeGUI.open(player, target);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private boolean tpaEnabled(Player player) {
+        if (!plugin.getSettings().tpaEnabled) {
+            player.sendMessage(plugin.getMessage("tpa-feature-disabled"));
+            return false;
+        }
+        return true;
+    }
+
+    private int tpa(CommandContext<CommandSourceStack> ctx, Consumer<Player> action) {
+        Player player = requirePlayer(ctx);
+        if (player == null || !tpaEnabled(player)) return Command.SINGLE_SUCCESS;
+        action.accept(player);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int tpaRequest(CommandContext<CommandSourceStack> ctx, TpaManager.RequestType type) {
+        Player player = requirePlayer(ctx);
+        if (player == null || !tpaEnabled(player)) return Command.SINGLE_SUCCESS;
+
+        Player target = ctx.getArgument("player", Player.class);
+        if (target.getUniqueId().equals(player.getUniqueId())) {
+            player.sendMessage(plugin.getMessage("tpa-self"));
+            return Command.SINGLE_SUCCESS;
+        }
+        tpaManager.sendRequest(player, target, type);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int back(CommandContext<CommandSourceStack> ctx) {
+        Player player = requirePlayer(ctx);
+        if (player == null) return Command.SINGLE_SUCCESS;
+        if (!plugin.getSettings().backEnabled) {
+            player.sendMessage(plugin.getMessage("back-feature-disabled"));
+            return Command.SINGLE_SUCCESS;
+        }
+        tpaManager.teleportBack(player);
+        return Command.SINGLE_SUCCESS;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.homes.command;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.manager.OnlinePlayerIndex;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.MessageComponentSerializer;
+import io.papermc.paper.command.brigadier.argument.CustomArgumentType;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+/**
+ * Online player argument. Parsed as a single word and resolved to a {@link Player} at dispatch,
+ * suggestions come from the online name trie and never touch the main thread.
+ */
+public class OnlinePlayerArgument implements CustomArgumentType.Converted<Player, String> {
+
+    private final HomesPlugin plugin;
+    private final OnlinePlayerIndex onlinePlayers;
+    private final boolean excludeSelf;
+
+    public OnlinePlayerArgument(HomesPlugin plugin, OnlinePlayerIndex onlinePlayers, boolean excludeSelf) {
+        this.plugin = plugin;
+        this.onlinePlayers = onlinePlayers;
+        this.excludeSelf = excludeSelf;
+    }
+
+    @Override
+    public Player convert(String name) throws CommandSyntaxException {
+        Player player = Bukkit.getPlayer(name);
+        if (player == null) {
+            throw new SimpleCommandExceptionType(MessageComponentSerializer.message().serialize(
+                    LegacyComponentSerializer.legacySection().deserialize(plugin.getMessage("player-not-found")))).create();
+        }
+        return player;
+    }
+
+    @Override
+    public ArgumentType<String> getNativeType() {
+        return StringArgumentType.word();
+    }
+
+    @Override
+    public <S> CompletableFuture<Suggestions> listSuggestions(CommandContext<S> context, SuggestionsBuilder builder) {
+        Object source = context.getSource();
+        String self = excludeSelf && source instanceof CommandSourceStack stack ? stack.getSender().getName() : null;
+        return CompletableFuture.supplyAsync(() -> {
+            int limit = plugin.getSettings().maxSuggestions;
+            // Ask for one extra in case the sender is in the result
+            for (String name : onlinePlayers.complete(builder.getRemaining(), limit + 1)) {
+                if (name.equals(self)) continue;
+                if (limit-- <= 0) break;
+                builder.suggest(name);
+            }
+            return builder.build();
+        });
+    }
+}
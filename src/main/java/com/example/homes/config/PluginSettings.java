@@ -0,0 +1,207 @@
+package com.example.homes.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * Immutable, pre-parsed snapshot of config.yml.
+ * Built once on enable and on /homes reload, then swapped in as a whole, so hot paths
+ * read final fields instead of walking YAML sections and re-translating color codes.
+ * Database and cache sizing are only read at startup and stay out of here.
+ */
+public final class PluginSettings {
+
+    // settings
+    public final int defaultHomeLimit;
+    public final int opHomeLimit; // negative = unlimited
+    public final int teleportDelay;
+    public final int maxSuggestions;
+    public final boolean tpaEnabled;
+    public final boolean tpaBackOnTeleport;
+    public final int tpaCooldownSeconds;
+    public final boolean backEnabled;
+    public final boolean backSaveDeathLocation;
+    public final int backHistorySize;
+
+    // economy
+    public final double costSetHome;
+    public final double costTeleport;
+    public final double costMakePublic;
+
+    public final Gui gui;
+
+    private final Map<String, String> messages;
+    private final Map<String, SoundEntry> sounds;
+
+    private PluginSettings(FileConfiguration config, Logger logger) {
+        this.defaultHomeLimit = config.getInt("settings.default-home-limit", 1);
+        this.opHomeLimit = config.getInt("settings.op-home-limit", 100);
+        this.teleportDelay = config.getInt("settings.teleport-delay", 3);
+        this.maxSuggestions = config.getInt("settings.tab-complete.max-suggestions", 50);
+        this.tpaEnabled = config.getBoolean("settings.tpa.enabled", true);
+        this.tpaBackOnTeleport = config.getBoolean("settings.tpa.back-on-teleport", true);
+        this.tpaCooldownSeconds = config.getInt("settings.tpa.cooldown", 60);
+        this.backEnabled = config.getBoolean("settings.back.enabled", true);
+        this.backSaveDeathLocation = config.getBoolean("settings.back.save-death-location", true);
+        this.backHistorySize = Math.min(255, Math.max(1, config.getInt("settings.back.history-size", 5)));
+
+        this.costSetHome = config.getDouble("economy.cost.set-home", 0);
+        this.costTeleport = config.getDouble("economy.cost.teleport", 0);
+        this.costMakePublic = config.getDouble("economy.cost.make-public", 0);
+
+        this.gui = new Gui(config);
+
+        Map<String, String> messages = new HashMap<>();
+        ConfigurationSection messageSection = config.getConfigurationSection("messages");
+        if (messageSection != null) {
+            for (String key : messageSection.getKeys(false)) {
+                String value = messageSection.getString(key);
+                if (value != null) {
+                    messages.put(key, color(value));
+                }
+            }
+        }
+        this.messages = Collections.unmodifiableMap(messages);
+
+        // Resolved and validated once here, so a bad name warns on load instead of on every play
+        Map<String, SoundEntry> sounds = new HashMap<>();
+        ConfigurationSection soundSection = config.getConfigurationSection("sounds");
+        if (soundSection != null) {
+            for (String key : soundSection.getKeys(false)) {
+                try {
+                    SoundEntry entry = SoundEntry.parse(soundSection, key);
+                    if (entry != null) {
+                        sounds.put(key, entry);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid sound name in config: sounds." + key + " (" + e.getMessage() + ")");
+                }
+            }
+        }
+        this.sounds = Collections.unmodifiableMap(sounds);
+    }
+
+    public static PluginSettings load(FileConfiguration config, Logger logger) {
+        return new PluginSettings(config, logger);
+    }
+
+    // Already color-translated
+    public String message(String key) {
+        String msg = messages.get(key);
+        return msg != null ? msg : "Message not found: " + key;
+    }
+
+    // null if not set, NONE or invalid
+    public SoundEntry sound(String key) {
+        return sounds.get(key);
+    }
+
+    // GUI texts, all color-translated. Placeholders ({name}, {world}, ...) are left in place.
+    public static final class Gui {
+        public final String title;
+        public final String titleOther; // null = "<player>のホーム"
+
+        public final String createButtonName;
+        public final List<String> createButtonLore;
+        public final String renameButtonNameOn;
+        public final String renameButtonNameOff;
+        public final List<String> renameButtonLoreOn;
+        public final List<String> renameButtonLoreOff;
+        public final String deleteButtonNameOn;
+        public final String deleteButtonNameOff;
+        public final List<String> deleteButtonLoreOn;
+        public final List<String> deleteButtonLoreOff;
+        public final String publicButtonNameOn;
+        public final String publicButtonNameOff;
+        public final List<String> publicButtonLoreOn;
+        public final List<String> publicButtonLoreOff;
+
+        public final String homeIconName;
+        public final Material homeIconDefaultMaterial;
+        public final Map<String, Material> worldIcons;
+        public final List<String> homeIconLore;
+        public final List<String> homeIconLoreTeleport;
+        public final List<String> homeIconLoreDelete;
+
+        public final String confirmTitle;
+        public final String confirmYesName;
+        public final List<String> confirmYesLore;
+        public final String confirmNoName;
+        public final List<String> confirmNoLore;
+
+        private Gui(FileConfiguration config) {
+            this.title = color(config.getString("gui.title", "ホーム一覧"));
+            String other = config.getString("gui.title-other");
+            this.titleOther = other != null ? color(other) : null;
+
+            this.createButtonName = color(config.getString("gui.create-button.name", "&aホームを作成する"));
+            this.createButtonLore = colorList(config.getStringList("gui.create-button.lore"), null);
+            this.renameButtonNameOn = color(config.getString("gui.rename-button.name-on", "&eリネームモード: ON"));
+            this.renameButtonNameOff = color(config.getString("gui.rename-button.name-off", "&aリネームモード: OFF"));
+            this.renameButtonLoreOn = colorList(config.getStringList("gui.rename-button.lore-on"), "&7クリックしてモードを終了");
+            this.renameButtonLoreOff = colorList(config.getStringList("gui.rename-button.lore-off"), "&7クリックしてリネームモードに切替");
+            this.deleteButtonNameOn = color(config.getString("gui.delete-button.name-on", "&c削除モード: ON"));
+            this.deleteButtonNameOff = color(config.getString("gui.delete-button.name-off", "&a削除モード: OFF"));
+            this.deleteButtonLoreOn = colorList(config.getStringList("gui.delete-button.lore-on"), null);
+            this.deleteButtonLoreOff = colorList(config.getStringList("gui.delete-button.lore-off"), null);
+            this.publicButtonNameOn = color(config.getString("gui.public-button.name-on", "&b公開設定モード: ON"));
+            this.publicButtonNameOff = color(config.getString("gui.public-button.name-off", "&a公開設定モード: OFF"));
+            this.publicButtonLoreOn = colorList(config.getStringList("gui.public-button.lore-on"), "&7クリックしてモードを終了");
+            this.publicButtonLoreOff = colorList(config.getStringList("gui.public-button.lore-off"), "&7クリックして公開設定モードに切替");
+
+            this.homeIconName = color(config.getString("gui.home-icon.name", "&6{name}"));
+            Material defaultMat = Material.getMaterial(config.getString("gui.home-icon.default-material", "RED_BED"));
+            this.homeIconDefaultMaterial = defaultMat != null ? defaultMat : Material.RED_BED;
+            Map<String, Material> worldIcons = new HashMap<>();
+            ConfigurationSection iconSection = config.getConfigurationSection("gui.home-icon.world-icons");
+            if (iconSection != null) {
+                for (String world : iconSection.getKeys(false)) {
+                    String matName = iconSection.getString(world);
+                    Material material = matName != null ? Material.getMaterial(matName) : null;
+                    if (material != null) {
+                        worldIcons.put(world, material);
+                    }
+                }
+            }
+            this.worldIcons = Collections.unmodifiableMap(worldIcons);
+            this.homeIconLore = colorList(config.getStringList("gui.home-icon.lore"), null);
+            this.homeIconLoreTeleport = colorList(config.getStringList("gui.home-icon.lore-teleport"), null);
+            this.homeIconLoreDelete = colorList(config.getStringList("gui.home-icon.lore-delete"), null);
+
+            this.confirmTitle = color(config.getString("gui.confirm-delete.title", "&c本当に削除しますか？"));
+            this.confirmYesName = color(config.getString("gui.confirm-delete.yes-button.name", "&aはい、削除します"));
+            this.confirmYesLore = colorList(config.getStringList("gui.confirm-delete.yes-button.lore"), null);
+            this.confirmNoName = color(config.getString("gui.confirm-delete.no-button.name", "&cいいえ、キャンセルします"));
+            this.confirmNoLore = colorList(config.getStringList("gui.confirm-delete.no-button.lore"), null);
+        }
+
+        public Material worldIcon(String worldName) {
+            return worldIcons.getOrDefault(worldName, homeIconDefaultMaterial);
+        }
+    }
+
+    private static String color(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    // Empty config list falls back to the single default line, if any
+    private static List<String> colorList(List<String> lines, String defaultLine) {
+        if (lines.isEmpty() && defaultLine != null) {
+            lines = Collections.singletonList(defaultLine);
+        }
+        List<String> colored = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            colored.add(color(line));
+        }
+        return Collections.unmodifiableList(colored);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.homes.config;
+
+import java.util.Locale;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.Sound;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * A sound resolved from config, with its volume and pitch.
+ * Accepts either a plain name or a section:
+ * <pre>
+ * teleport-count: BLOCK_NOTE_BLOCK_PLING
+ * teleport-success:
+ *   sound: minecraft:entity.enderman.teleport
+ *   volume: 0.8
+ *   pitch: 1.2
+ * </pre>
+ */
+public final class SoundEntry {
+
+    public final Sound sound;
+    public final float volume;
+    public final float pitch;
+
+    private SoundEntry(Sound sound, float volume, float pitch) {
+        this.sound = sound;
+        this.volume = volume;
+        this.pitch = pitch;
+    }
+
+    // null for NONE or a missing name; throws IllegalArgumentException for unknown sounds
+    static SoundEntry parse(ConfigurationSection sounds, String key) {
+        String name;
+        float volume = 1f;
+        float pitch = 1f;
+        if (sounds.isConfigurationSection(key)) {
+            ConfigurationSection section = sounds.getConfigurationSection(key);
+            name = section.getString("sound");
+            volume = (float) section.getDouble("volume", 1.0);
+            pitch = (float) section.getDouble("pitch", 1.0);
+        } else {
+            name = sounds.getString(key);
+        }
+        if (name == null || name.equalsIgnoreCase("NONE")) {
+            return null;
+        }
+        return new SoundEntry(resolve(name), volume, pitch);
+    }
+
+    private static Sound resolve(String name) {
+        // Namespaced key (minecraft:block.note_block.pling) or legacy enum-style name
+        if (name.indexOf(':') >= 0 || name.indexOf('.') >= 0) {
+            NamespacedKey key = NamespacedKey.fromString(name.toLowerCase(Locale.ROOT));
+            Sound sound = key != null ? Registry.SOUNDS.get(key) : null;
+            if (sound == null) throw new IllegalArgumentException(name);
+            return sound;
+        }
+        return Sound.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.homes.database;
 
+import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
 
 import org.bukkit.Location;
 
@@ -22,10 +28,19 @@ public class DatabaseManager {
     private HikariDataSource dataSource;
     private HikariConfig config;
 
+    // Table reads and writes go to; during the v2 migration writes are mirrored to homes_v2 as well
+    private volatile HomeTable liveTable = HomeTable.V1;
+    private volatile HomeTable mirrorTable;
+    // Writes share the read lock, the migration takes the write lock to copy a page or switch tables
+    private final ReadWriteLock tableLock = new ReentrantReadWriteLock();
+    // worlds dictionary, name -> id
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+
     public DatabaseManager(HomesPlugin plugin) {
         this.plugin = plugin;
         setupDataSource();
         createTable();
+        loadSchemaState();
     }
 
     private void setupDataSource() {
@@ -72,20 +87,17 @@ public class DatabaseManager {
         dataSource = new HikariDataSource(config);
     }
 
-    public List<String> getPlayersWithPublicHomes() {
-        List<String> players = new ArrayList<>();
-        String sql = "SELECT DISTINCT player_uuid FROM player_homes WHERE is_public = true";
+    // All public homes grouped by owner, used to build the /vhome completion index at startup
+    public Map<UUID, List<String>> loadPublicHomes() {
+        HomeTable table = liveTable;
+        Map<UUID, List<String>> owners = new HashMap<>();
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = conn.prepareStatement(table.loadPublicSql);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                String uuidStr = rs.getString("player_uuid");
                 try {
-                    UUID uuid = UUID.fromString(uuidStr);
-                    org.bukkit.OfflinePlayer op = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                    if (op.getName() != null) {
-                        players.add(op.getName());
-                    }
+                    UUID uuid = readUuid(table, rs);
+                    owners.computeIfAbsent(uuid, k -> new ArrayList<>()).add(rs.getString("home_name"));
                 } catch (IllegalArgumentException e) {
                     // Ignore invalid UUIDs
                 }
@@ -93,7 +105,7 @@ public class DatabaseManager {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return players;
+        return owners;
     }
 
     private void createTable() {
@@ -114,12 +126,53 @@ public class DatabaseManager {
         // Use createIndex for faster lookups
         String indexSql = "CREATE INDEX IF NOT EXISTS idx_player_uuid ON player_homes(player_uuid);";
 
+        // TPA toggle, ignore list and /back history; one row per player that ever changed them
+        String settingsSql = "CREATE TABLE IF NOT EXISTS player_settings (" +
+                "player_uuid VARCHAR(36) NOT NULL PRIMARY KEY," +
+                "tpa_disabled BOOLEAN NOT NULL DEFAULT FALSE," +
+                "ignored_players TEXT," +
+                "back_history BLOB" +
+                ");";
+
+        // Progress of file imports (/homes import-skript), keyed by the file's path
+        String checkpointSql = "CREATE TABLE IF NOT EXISTS import_checkpoints (" +
+                "source VARCHAR(255) NOT NULL PRIMARY KEY," +
+                "file_offset BIGINT NOT NULL," +
+                "fingerprint BIGINT NOT NULL," +
+                "updated_at BIGINT NOT NULL" +
+                ");";
+
+        // v2 layout: 16-byte uuids and world ids. The unique key's uuid prefix serves per-player
+        // lookups, so there's no separate uuid index.
+        String worldsSql = "CREATE TABLE IF NOT EXISTS worlds (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "name VARCHAR(64) NOT NULL," +
+                "UNIQUE (name)" +
+                ");";
+        String homesV2Sql = "CREATE TABLE IF NOT EXISTS homes_v2 (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "player_uuid BINARY(16) NOT NULL," +
+                "home_name VARCHAR(64) NOT NULL," +
+                "world_id INT NOT NULL," +
+                "x DOUBLE NOT NULL," +
+                "y DOUBLE NOT NULL," +
+                "z DOUBLE NOT NULL," +
+                "yaw FLOAT NOT NULL," +
+                "pitch FLOAT NOT NULL," +
+                "is_public BOOLEAN NOT NULL DEFAULT FALSE," +
+                "UNIQUE (player_uuid, home_name)" +
+                ");";
+        // Which layout is live, and how far a running migration has copied
+        String schemaInfoSql = "CREATE TABLE IF NOT EXISTS schema_info (" +
+                "info_key VARCHAR(64) NOT NULL PRIMARY KEY," +
+                "info_value VARCHAR(255) NOT NULL" +
+                ");";
+
         try (Connection conn = dataSource.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.executeUpdate();
-            }
-            try (PreparedStatement stmt = conn.prepareStatement(indexSql)) {
-                stmt.executeUpdate();
+            for (String ddl : new String[] { sql, indexSql, settingsSql, checkpointSql, worldsSql, homesV2Sql, schemaInfoSql }) {
+                try (PreparedStatement stmt = conn.prepareStatement(ddl)) {
+                    stmt.executeUpdate();
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -168,116 +221,399 @@ public class DatabaseManager {
         }
     }
 
+    private static final String SETTINGS_SQL = "INSERT INTO player_settings (player_uuid, tpa_disabled, ignored_players, back_history) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE tpa_disabled=?, ignored_players=?, back_history=?";
+
     public void setHome(UUID uuid, String name, Location loc, boolean isPublic) {
-        String sql = "INSERT INTO player_homes (player_uuid, home_name, world_name, x, y, z, yaw, pitch, is_public) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE world_name=?, x=?, y=?, z=?, yaw=?, pitch=?, is_public=?";
+        writeOne(HomeWriteQueue.Write.upsert(uuid, HomeRecord.of(name, loc, isPublic)));
+    }
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, uuid.toString());
-            stmt.setString(2, name);
-            stmt.setString(3, loc.getWorld().getName());
-            stmt.setDouble(4, loc.getX());
-            stmt.setDouble(5, loc.getY());
-            stmt.setDouble(6, loc.getZ());
-            stmt.setFloat(7, loc.getYaw());
-            stmt.setFloat(8, loc.getPitch());
-            stmt.setBoolean(9, isPublic);
-            
-            stmt.setString(10, loc.getWorld().getName());
-            stmt.setDouble(11, loc.getX());
-            stmt.setDouble(12, loc.getY());
-            stmt.setDouble(13, loc.getZ());
-            stmt.setFloat(14, loc.getYaw());
-            stmt.setFloat(15, loc.getPitch());
-            stmt.setBoolean(16, isPublic);
+    private void bindUpsert(HomeTable table, PreparedStatement stmt, UUID uuid, String name, String worldName,
+                            double x, double y, double z, float yaw, float pitch, boolean isPublic) throws SQLException {
+        bindUuid(table, stmt, 1, uuid);
+        stmt.setString(2, name);
+        bindWorld(table, stmt, 3, worldName);
+        stmt.setDouble(4, x);
+        stmt.setDouble(5, y);
+        stmt.setDouble(6, z);
+        stmt.setFloat(7, yaw);
+        stmt.setFloat(8, pitch);
+        stmt.setBoolean(9, isPublic);
 
-            stmt.executeUpdate();
+        bindWorld(table, stmt, 10, worldName);
+        stmt.setDouble(11, x);
+        stmt.setDouble(12, y);
+        stmt.setDouble(13, z);
+        stmt.setFloat(14, yaw);
+        stmt.setFloat(15, pitch);
+        stmt.setBoolean(16, isPublic);
+    }
+
+    private void bindSettings(PreparedStatement stmt, UUID uuid, PlayerSettings settings) throws SQLException {
+        String ignored = settings.ignoredColumn();
+        stmt.setString(1, uuid.toString());
+        stmt.setBoolean(2, settings.tpaDisabled());
+        stmt.setString(3, ignored);
+        stmt.setBytes(4, settings.backHistory());
+
+        stmt.setBoolean(5, settings.tpaDisabled());
+        stmt.setString(6, ignored);
+        stmt.setBytes(7, settings.backHistory());
+    }
+
+    private static void bindUuid(HomeTable table, PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        if (table.binary) {
+            stmt.setBytes(index, uuidBytes(uuid));
+        } else {
+            stmt.setString(index, uuid.toString());
+        }
+    }
+
+    private static UUID readUuid(HomeTable table, ResultSet rs) throws SQLException {
+        if (table.binary) {
+            byte[] bytes = rs.getBytes("player_uuid");
+            if (bytes == null || bytes.length != 16) throw new IllegalArgumentException("Invalid uuid bytes");
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return UUID.fromString(rs.getString("player_uuid"));
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private void bindWorld(HomeTable table, PreparedStatement stmt, int index, String worldName) throws SQLException {
+        if (table.binary) {
+            stmt.setInt(index, worldId(worldName));
+        } else {
+            stmt.setString(index, worldName);
+        }
+    }
+
+    // Id of a world in the worlds dictionary, added on first use. Uses its own connection so a
+    // duplicate insert from a concurrent writer never touches the caller's transaction.
+    private int worldId(String name) throws SQLException {
+        Integer cached = worldIds.get(name);
+        if (cached != null) return cached;
+
+        try (Connection conn = dataSource.getConnection()) {
+            Integer id = selectWorldId(conn, name);
+            if (id == null) {
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO worlds (name) VALUES (?)")) {
+                    stmt.setString(1, name);
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    // Someone else added it first
+                }
+                id = selectWorldId(conn, name);
+                if (id == null) throw new SQLException("Could not add world " + name);
+            }
+            worldIds.put(name, id);
+            return id;
+        }
+    }
+
+    private static Integer selectWorldId(Connection conn, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM worlds WHERE name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Prepared statements for home writes against one table, created on first use.
+     * Consecutive writes of the same type share a JDBC batch; the batch is executed
+     * whenever the type changes so statement order is preserved.
+     */
+    private final class HomeStatements implements AutoCloseable {
+        private final Connection conn;
+        private final HomeTable table;
+        private final PreparedStatement[] statements = new PreparedStatement[HomeWriteQueue.Type.values().length];
+        private PreparedStatement current;
+
+        HomeStatements(Connection conn, HomeTable table) {
+            this.conn = conn;
+            this.table = table;
+        }
+
+        void add(HomeWriteQueue.Write write) throws SQLException {
+            PreparedStatement stmt = statement(write.type);
+            switch (write.type) {
+                case UPSERT:
+                    bindUpsert(table, stmt, write.uuid, write.name, write.worldName, write.x, write.y, write.z, write.yaw, write.pitch, write.isPublic);
+                    break;
+                case PUBLIC:
+                    stmt.setBoolean(1, write.isPublic);
+                    bindUuid(table, stmt, 2, write.uuid);
+                    stmt.setString(3, write.name);
+                    break;
+                case RENAME:
+                    stmt.setString(1, write.newName);
+                    bindUuid(table, stmt, 2, write.uuid);
+                    stmt.setString(3, write.name);
+                    break;
+                default:
+                    bindUuid(table, stmt, 1, write.uuid);
+                    stmt.setString(2, write.name);
+                    break;
+            }
+            if (current != null && current != stmt) {
+                current.executeBatch();
+            }
+            stmt.addBatch();
+            current = stmt;
+        }
+
+        void execute() throws SQLException {
+            if (current != null) {
+                current.executeBatch();
+                current = null;
+            }
+        }
+
+        private PreparedStatement statement(HomeWriteQueue.Type type) throws SQLException {
+            PreparedStatement stmt = statements[type.ordinal()];
+            if (stmt == null) {
+                String sql = switch (type) {
+                    case UPSERT -> table.upsertSql;
+                    case PUBLIC -> table.updatePublicSql;
+                    case RENAME -> table.renameSql;
+                    case DELETE -> table.deleteSql;
+                    default -> throw new IllegalArgumentException("Not a home write: " + type);
+                };
+                stmt = conn.prepareStatement(sql);
+                statements[type.ordinal()] = stmt;
+            }
+            return stmt;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            for (PreparedStatement stmt : statements) {
+                if (stmt != null) stmt.close();
+            }
+        }
+    }
+
+    /**
+     * Applies queued writes in order inside one transaction.
+     * While the v2 migration runs, home writes are applied to both tables in the same transaction.
+     *
+     * @return false if the transaction was rolled back
+     */
+    public boolean writeBatch(List<HomeWriteQueue.Write> writes) {
+        tableLock.readLock().lock();
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            HomeTable copy = mirrorTable;
+            try (HomeStatements primary = new HomeStatements(conn, liveTable);
+                 HomeStatements mirrored = copy == null ? null : new HomeStatements(conn, copy);
+                 PreparedStatement settings = conn.prepareStatement(SETTINGS_SQL)) {
+
+                boolean anySettings = false;
+                for (HomeWriteQueue.Write write : writes) {
+                    if (write.type == HomeWriteQueue.Type.SETTINGS) {
+                        bindSettings(settings, write.uuid, write.settings);
+                        settings.addBatch();
+                        anySettings = true;
+                        continue;
+                    }
+                    primary.add(write);
+                    if (mirrored != null) {
+                        mirrored.add(write);
+                    }
+                }
+                primary.execute();
+                if (mirrored != null) {
+                    mirrored.execute();
+                }
+                if (anySettings) {
+                    settings.executeBatch();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                plugin.getLogger().warning("Home write batch rolled back: " + e.getMessage());
+                return false;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
+        } finally {
+            tableLock.readLock().unlock();
         }
     }
 
-    public void setHome(UUID uuid, String name, Location loc) {
-        setHome(uuid, name, loc, false); // Default not public
+    // Fallback when a batch fails: apply each write on its own so only the bad ones are lost
+    public void writeIndividually(List<HomeWriteQueue.Write> writes) {
+        for (HomeWriteQueue.Write write : writes) {
+            if (write.type == HomeWriteQueue.Type.SETTINGS) {
+                try (Connection conn = dataSource.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(SETTINGS_SQL)) {
+                    bindSettings(stmt, write.uuid, write.settings);
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            } else {
+                writeOne(write);
+            }
+        }
     }
-    
-    public void updatePublic(UUID uuid, String name, boolean isPublic) {
-        String sql = "UPDATE player_homes SET is_public = ? WHERE player_uuid = ? AND home_name = ?";
+
+    // One home write outside the queue, mirrored like writeBatch
+    private void writeOne(HomeWriteQueue.Write write) {
+        tableLock.readLock().lock();
+        HomeTable copy = mirrorTable;
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setBoolean(1, isPublic);
-            stmt.setString(2, uuid.toString());
-            stmt.setString(3, name);
-            stmt.executeUpdate();
+             HomeStatements primary = new HomeStatements(conn, liveTable);
+             HomeStatements mirrored = copy == null ? null : new HomeStatements(conn, copy)) {
+            primary.add(write);
+            primary.execute();
+            if (mirrored != null) {
+                mirrored.add(write);
+                mirrored.execute();
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            tableLock.readLock().unlock();
         }
     }
 
+    public void setHome(UUID uuid, String name, Location loc) {
+        setHome(uuid, name, loc, false); // Default not public
+    }
+    
+    public void updatePublic(UUID uuid, String name, boolean isPublic) {
+        writeOne(HomeWriteQueue.Write.setPublic(uuid, name, isPublic));
+    }
+
     public void renameHome(UUID uuid, String oldName, String newName) {
-        String sql = "UPDATE player_homes SET home_name = ? WHERE player_uuid = ? AND home_name = ?";
+        writeOne(HomeWriteQueue.Write.rename(uuid, oldName, newName));
+    }
+
+    public void deleteHome(UUID uuid, String name) {
+        writeOne(HomeWriteQueue.Write.delete(uuid, name));
+    }
+
+    private static HomeRecord readHome(ResultSet rs) throws SQLException {
+        return new HomeRecord(
+                rs.getString("home_name"),
+                WorldRegistry.idOf(rs.getString("world_name")),
+                rs.getDouble("x"),
+                rs.getDouble("y"),
+                rs.getDouble("z"),
+                rs.getFloat("yaw"),
+                rs.getFloat("pitch"),
+                rs.getBoolean("is_public")
+        );
+    }
+
+    public PlayerData loadPlayer(UUID uuid) {
+        HomeTable table = liveTable;
+        List<HomeRecord> homes = new ArrayList<>();
+        PlayerSettings settings = PlayerSettings.DEFAULT;
+
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, newName);
-            stmt.setString(2, uuid.toString());
-            stmt.setString(3, oldName);
-            stmt.executeUpdate();
+             PreparedStatement stmt = conn.prepareStatement(table.loadPlayerSql)) {
+            stmt.setString(1, uuid.toString());
+            if (table.binary) {
+                bindUuid(table, stmt, 2, uuid);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean first = true;
+                while (rs.next()) {
+                    if (first) {
+                        first = false;
+                        boolean tpaDisabled = rs.getBoolean("tpa_disabled");
+                        if (!rs.wasNull()) {
+                            settings = new PlayerSettings(tpaDisabled,
+                                    PlayerSettings.parseIgnored(rs.getString("ignored_players")),
+                                    rs.getBytes("back_history"));
+                        }
+                    }
+                    if (rs.getString("home_name") == null) continue;
+                    homes.add(readHome(rs));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return new PlayerData(PlayerHomes.of(homes), settings);
     }
-    
-    public boolean isPublic(UUID uuid, String name) {
-        String sql = "SELECT is_public FROM player_homes WHERE player_uuid = ? AND home_name = ?";
+
+    // Homes and public flags in one round-trip. World names are interned, not resolved to World here.
+    public PlayerHomes loadHomes(UUID uuid) {
+        HomeTable table = liveTable;
+        List<HomeRecord> homes = new ArrayList<>();
+
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            stmt.setString(2, name);
+             PreparedStatement stmt = conn.prepareStatement(table.loadHomesSql)) {
+            bindUuid(table, stmt, 1, uuid);
+
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getBoolean("is_public");
+                while (rs.next()) {
+                    homes.add(readHome(rs));
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return PlayerHomes.of(homes);
     }
 
-    public void deleteHome(UUID uuid, String name) {
-        String sql = "DELETE FROM player_homes WHERE player_uuid = ? AND home_name = ?";
-        
+    // Current homes of several players at once, e.g. to skip imported rows that are already stored.
+    // Players without homes are missing from the map.
+    public Map<UUID, PlayerHomes> loadHomes(Collection<UUID> uuids) {
+        HomeTable table = liveTable;
+        Map<UUID, List<HomeRecord>> rows = new HashMap<>();
+        if (uuids.isEmpty()) return new HashMap<>();
+
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            stmt.setString(2, name);
-            stmt.executeUpdate();
+             PreparedStatement stmt = conn.prepareStatement(table.loadHomesInSql(uuids.size()))) {
+            int index = 1;
+            for (UUID uuid : uuids) {
+                bindUuid(table, stmt, index++, uuid);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.computeIfAbsent(readUuid(table, rs), k -> new ArrayList<>()).add(readHome(rs));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+
+        Map<UUID, PlayerHomes> homes = new HashMap<>();
+        for (Map.Entry<UUID, List<HomeRecord>> entry : rows.entrySet()) {
+            homes.put(entry.getKey(), PlayerHomes.of(entry.getValue()));
+        }
+        return homes;
     }
 
-    public Location getHome(UUID uuid, String name) {
-        String sql = "SELECT * FROM player_homes WHERE player_uuid = ? AND home_name = ?";
-        
+    // Null if the source was never imported (or the checkpoint was cleared)
+    public ImportCheckpoint loadImportCheckpoint(String source) {
+        String sql = "SELECT file_offset, fingerprint FROM import_checkpoints WHERE source = ?";
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            stmt.setString(2, name);
-            
+            stmt.setString(1, source);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Location(
-                            plugin.getServer().getWorld(rs.getString("world_name")),
-                            rs.getDouble("x"),
-                            rs.getDouble("y"),
-                            rs.getDouble("z"),
-                            rs.getFloat("yaw"),
-                            rs.getFloat("pitch")
-                    );
+                    return new ImportCheckpoint(rs.getLong("file_offset"), rs.getLong("fingerprint"));
                 }
             }
         } catch (SQLException e) {
@@ -286,49 +622,355 @@ public class DatabaseManager {
         return null;
     }
 
-    public Map<String, Boolean> getHomePublicStatus(UUID uuid) {
-        Map<String, Boolean> status = new HashMap<>();
-        String sql = "SELECT home_name, is_public FROM player_homes WHERE player_uuid = ?";
-        
+    public void saveImportCheckpoint(String source, ImportCheckpoint checkpoint) {
+        String sql = "INSERT INTO import_checkpoints (source, file_offset, fingerprint, updated_at) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE file_offset=?, fingerprint=?, updated_at=?";
+        long now = System.currentTimeMillis();
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            
+            stmt.setString(1, source);
+            stmt.setLong(2, checkpoint.offset());
+            stmt.setLong(3, checkpoint.fingerprint());
+            stmt.setLong(4, now);
+            stmt.setLong(5, checkpoint.offset());
+            stmt.setLong(6, checkpoint.fingerprint());
+            stmt.setLong(7, now);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void deleteImportCheckpoint(String source) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM import_checkpoints WHERE source = ?")) {
+            stmt.setString(1, source);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Version of the live homes table, 1 (player_homes) or 2 (homes_v2)
+    public int getSchemaVersion() {
+        return liveTable.version;
+    }
+
+    /**
+     * One keyset page of a homes table in id order, for streaming the whole table.
+     * Each page is its own short query, so no lock or cursor is held on the table between pages.
+     * Callers pass the schema version they started with and keep it for the whole scan.
+     *
+     * @return the id of the last row read, or -1 if there were no rows after afterId
+     */
+    public long readHomesPage(int schemaVersion, long afterId, int limit, BiConsumer<UUID, HomeRecord> consumer) {
+        return readHomesPage(schemaVersion == 2 ? HomeTable.V2 : HomeTable.V1, afterId, limit, consumer, null);
+    }
+
+    // odd, if given, counts and logs the rows the migration can't copy one to one
+    private long readHomesPage(HomeTable table, long afterId, int limit, BiConsumer<UUID, HomeRecord> consumer, OddRows odd) {
+        long lastId = -1;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(table.pageSql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+            stmt.setFetchSize(limit);
+
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    status.put(rs.getString("home_name"), rs.getBoolean("is_public"));
+                    lastId = rs.getLong("id");
+                    UUID uuid;
+                    try {
+                        uuid = readUuid(table, rs);
+                    } catch (IllegalArgumentException e) {
+                        // Ignore invalid UUIDs
+                        if (odd != null) odd.skipped(lastId, rs.getString("player_uuid"));
+                        continue;
+                    }
+                    if (odd != null && !table.binary) {
+                        String raw = rs.getString("player_uuid");
+                        if (!uuid.toString().equals(raw)) odd.nonCanonical(lastId, raw, uuid);
+                    }
+                    consumer.accept(uuid, readHome(rs));
                 }
             }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read " + table.name + " after id " + afterId, e);
+        }
+        return lastId;
+    }
+
+    // ---- v2 migration ----
+
+    private static final String SCHEMA_KEY = "homes_schema";
+    private static final String CURSOR_KEY = "migration_cursor";
+    private static final String SKIPPED_KEY = "migration_skipped";
+    private static final String NON_CANONICAL_KEY = "migration_non_canonical";
+
+    // Rows of player_homes the copy can't carry over one to one, so the final count check can allow for them.
+    // Unparseable uuids are skipped. Non-canonical ones (upper case, missing zeros) are copied, but a row whose
+    // uuid only differs in spelling from another one with the same home name ends up as a single homes_v2 row.
+    // Live writes always use the canonical string, so neither kind is ever created again once counted.
+    // Guarded by the write lock, persisted with the cursor.
+    private final class OddRows {
+        long skipped;
+        long nonCanonical;
+
+        void skipped(long id, String raw) {
+            skipped++;
+            plugin.getLogger().warning("Schema migration: player_homes id " + id + " has an invalid uuid '" + raw + "', not copied");
+        }
+
+        void nonCanonical(long id, String raw, UUID uuid) {
+            nonCanonical++;
+            plugin.getLogger().warning("Schema migration: player_homes id " + id + " has uuid '" + raw + "', copied as " + uuid
+                    + " and merged with any home of the same name under that uuid");
+        }
+    }
+
+    private final OddRows oddRows = new OddRows();
+
+    // Live layout from schema_info. A migration that was interrupted keeps mirroring writes from
+    // startup on, so nothing is missed before it resumes.
+    private void loadSchemaState() {
+        if ("2".equals(readSchemaInfo(SCHEMA_KEY))) {
+            liveTable = HomeTable.V2;
+        } else if (readSchemaInfo(CURSOR_KEY) != null) {
+            mirrorTable = HomeTable.V2;
+            oddRows.skipped = parseCount(readSchemaInfo(SKIPPED_KEY));
+            oddRows.nonCanonical = parseCount(readSchemaInfo(NON_CANONICAL_KEY));
+        }
+    }
+
+    private static long parseCount(String value) {
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    public boolean isMigrating() {
+        return mirrorTable != null;
+    }
+
+    // Last player_homes id already copied, -1 if no migration is in progress
+    public long getMigrationCursor() {
+        String cursor = readSchemaInfo(CURSOR_KEY);
+        return cursor == null ? -1 : Long.parseLong(cursor);
+    }
+
+    // Start mirroring writes into homes_v2; pages copied from now on can't miss a change
+    public void beginMigration() {
+        tableLock.writeLock().lock();
+        try {
+            if (liveTable == HomeTable.V2 || mirrorTable != null) return;
+            writeSchemaInfo(CURSOR_KEY, "0");
+            clearOddRows();
+            mirrorTable = HomeTable.V2;
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the next page of player_homes into homes_v2 and records the cursor.
+     * Holds the table lock so a mirrored write can't land between reading a row and copying it.
+     *
+     * @return the new cursor, or -1 if there was nothing left after afterId
+     */
+    public long copyMigrationPage(long afterId, int limit) {
+        tableLock.writeLock().lock();
+        try {
+            return copyPage(afterId, limit);
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    // Must hold the write lock
+    private long copyPage(long afterId, int limit) {
+        List<HomeWriteQueue.Write> writes = new ArrayList<>(limit);
+        long skipped = oddRows.skipped;
+        long nonCanonical = oddRows.nonCanonical;
+        long lastId = readHomesPage(HomeTable.V1, afterId, limit, (uuid, home) -> writes.add(HomeWriteQueue.Write.upsert(uuid, home)), oddRows);
+        if (lastId < 0) return -1;
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (HomeStatements v2 = new HomeStatements(conn, HomeTable.V2);
+                 PreparedStatement cursor = conn.prepareStatement(SCHEMA_INFO_UPSERT_SQL)) {
+                for (HomeWriteQueue.Write write : writes) {
+                    v2.add(write);
+                }
+                v2.execute();
+                // Cursor and counts in the same transaction as the rows they cover
+                bindSchemaInfo(cursor, CURSOR_KEY, Long.toString(lastId));
+                cursor.addBatch();
+                bindSchemaInfo(cursor, SKIPPED_KEY, Long.toString(oddRows.skipped));
+                cursor.addBatch();
+                bindSchemaInfo(cursor, NON_CANONICAL_KEY, Long.toString(oddRows.nonCanonical));
+                cursor.addBatch();
+                cursor.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                // The page is read again on retry, don't count its rows twice
+                oddRows.skipped = skipped;
+                oddRows.nonCanonical = nonCanonical;
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to copy homes after id " + afterId, e);
+        }
+        return lastId;
+    }
+
+    /**
+     * Copies whatever is left, checks both tables hold the same homes and makes homes_v2
+     * the live table, all under the table lock so no write is in between. player_homes is kept as it
+     * was at the switch, as a fallback; it isn't written any more.
+     * Rows that were skipped or may have been merged during the copy (see {@link OddRows}) are
+     * allowed for in the count check; they are in the log by id for an admin to clean up.
+     *
+     * @return false if the row counts didn't match or the switch couldn't be recorded; the migration
+     *         keeps mirroring and can be retried
+     */
+    public boolean finishMigration(long cursor, int limit) {
+        tableLock.writeLock().lock();
+        try {
+            long next;
+            while ((next = copyPage(cursor, limit)) >= 0) {
+                cursor = next;
+            }
+            long v1 = count(HomeTable.V1);
+            long v2 = count(HomeTable.V2);
+            long expected = v1 - oddRows.skipped;
+            if (v2 > expected || v2 < expected - oddRows.nonCanonical) {
+                plugin.getLogger().warning("Schema migration: player_homes has " + v1 + " rows (" + oddRows.skipped + " skipped, "
+                        + oddRows.nonCanonical + " non-canonical) but homes_v2 has " + v2);
+                return false;
+            }
+            if (oddRows.skipped > 0 || v2 < expected) {
+                plugin.getLogger().warning("Schema migration: " + oddRows.skipped + " rows with invalid uuids were skipped and "
+                        + (expected - v2) + " rows were merged, see the ids logged above");
+            }
+            try {
+                commitSwitch();
+            } catch (SQLException e) {
+                // schema_info still says v1, so keep mirroring and let the switch be retried
+                plugin.getLogger().warning("Schema migration: failed to record the switch to homes_v2: " + e);
+                return false;
+            }
+            oddRows.skipped = 0;
+            oddRows.nonCanonical = 0;
+            liveTable = HomeTable.V2;
+            mirrorTable = null;
+            return true;
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    // Schema key and migration state in one transaction, so a restart sees either the finished switch or none of it
+    private void commitSwitch() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(SCHEMA_INFO_UPSERT_SQL);
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM schema_info WHERE info_key = ?")) {
+                bindSchemaInfo(upsert, SCHEMA_KEY, "2");
+                upsert.executeUpdate();
+                for (String key : new String[] {CURSOR_KEY, SKIPPED_KEY, NON_CANONICAL_KEY}) {
+                    delete.setString(1, key);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // Forget a half-done copy, e.g. to retry after a count mismatch
+    public void resetMigration() {
+        tableLock.writeLock().lock();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM homes_v2")) {
+            stmt.executeUpdate();
+            writeSchemaInfo(CURSOR_KEY, "0");
+            clearOddRows();
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            tableLock.writeLock().unlock();
         }
-        return status;
     }
 
-    public Map<String, Location> getHomes(UUID uuid) {
-        Map<String, Location> homes = new HashMap<>();
-        String sql = "SELECT * FROM player_homes WHERE player_uuid = ?";
-        
+    // Must hold the write lock
+    private void clearOddRows() {
+        oddRows.skipped = 0;
+        oddRows.nonCanonical = 0;
+        deleteSchemaInfo(SKIPPED_KEY);
+        deleteSchemaInfo(NON_CANONICAL_KEY);
+    }
+
+    public long countHomes(int schemaVersion) {
+        return count(schemaVersion == 2 ? HomeTable.V2 : HomeTable.V1);
+    }
+
+    private long count(HomeTable table) {
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            
+             PreparedStatement stmt = conn.prepareStatement(table.countSql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to count " + table.name, e);
+        }
+    }
+
+    private static final String SCHEMA_INFO_UPSERT_SQL = "INSERT INTO schema_info (info_key, info_value) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE info_value=?";
+
+    private static void bindSchemaInfo(PreparedStatement stmt, String key, String value) throws SQLException {
+        stmt.setString(1, key);
+        stmt.setString(2, value);
+        stmt.setString(3, value);
+    }
+
+    private String readSchemaInfo(String key) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT info_value FROM schema_info WHERE info_key = ?")) {
+            stmt.setString(1, key);
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Location loc = new Location(
-                            plugin.getServer().getWorld(rs.getString("world_name")),
-                            rs.getDouble("x"),
-                            rs.getDouble("y"),
-                            rs.getDouble("z"),
-                            rs.getFloat("yaw"),
-                            rs.getFloat("pitch")
-                    );
-                    homes.put(rs.getString("home_name"), loc);
-                }
+                return rs.next() ? rs.getString(1) : null;
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void writeSchemaInfo(String key, String value) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SCHEMA_INFO_UPSERT_SQL)) {
+            bindSchemaInfo(stmt, key, value);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void deleteSchemaInfo(String key) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM schema_info WHERE info_key = ?")) {
+            stmt.setString(1, key);
+            stmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return homes;
     }
 }
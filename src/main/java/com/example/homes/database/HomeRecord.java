@@ -0,0 +1,48 @@
+package com.example.homes.database;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Immutable cached home: primitive coordinates, an interned world id and the public flag.
+ * Turned into a Location only when someone actually teleports.
+ */
+public record HomeRecord(String name, int worldId, double x, double y, double z, float yaw, float pitch, boolean isPublic) {
+
+    public static HomeRecord of(String name, Location loc, boolean isPublic) {
+        return new HomeRecord(name, WorldRegistry.idOf(loc.getWorld().getName()),
+                loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), loc.getPitch(), isPublic);
+    }
+
+    public String worldName() {
+        return WorldRegistry.nameOf(worldId);
+    }
+
+    public int blockX() {
+        return (int) Math.floor(x);
+    }
+
+    public int blockY() {
+        return (int) Math.floor(y);
+    }
+
+    public int blockZ() {
+        return (int) Math.floor(z);
+    }
+
+    // Null if the world is not loaded
+    public Location toLocation() {
+        World world = Bukkit.getWorld(worldName());
+        if (world == null) return null;
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+
+    public HomeRecord withName(String newName) {
+        return new HomeRecord(newName, worldId, x, y, z, yaw, pitch, isPublic);
+    }
+
+    public HomeRecord withPublic(boolean newPublic) {
+        return new HomeRecord(name, worldId, x, y, z, yaw, pitch, newPublic);
+    }
+}
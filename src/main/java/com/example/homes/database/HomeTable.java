@@ -0,0 +1,70 @@
+package com.example.homes.database;
+
+/**
+ * SQL for one layout of the homes table. Every query aliases the table as h and selects the
+ * world as world_name, so rows from either layout are read the same way.
+ * <ul>
+ * <li>v1 player_homes: player_uuid VARCHAR(36), world_name VARCHAR(64) on every row</li>
+ * <li>v2 homes_v2: player_uuid BINARY(16), world_id referencing the worlds dictionary</li>
+ * </ul>
+ */
+final class HomeTable {
+
+    static final HomeTable V1 = new HomeTable(1, false, "player_homes",
+            "player_homes h", "h.world_name", "world_name");
+    static final HomeTable V2 = new HomeTable(2, true, "homes_v2",
+            "homes_v2 h JOIN worlds w ON w.id = h.world_id", "w.name AS world_name", "world_id");
+
+    final int version;
+    final boolean binary; // BINARY(16) uuid and world id instead of strings
+    final String name;
+
+    final String upsertSql;
+    final String updatePublicSql;
+    final String renameSql;
+    final String deleteSql;
+    final String loadHomesSql;
+    final String loadPlayerSql;
+    final String loadPublicSql;
+    final String pageSql;
+    final String countSql;
+    private final String loadHomesInSql;
+
+    private HomeTable(int version, boolean binary, String name, String from, String worldSelect, String worldColumn) {
+        this.version = version;
+        this.binary = binary;
+        this.name = name;
+        String columns = "h.home_name, " + worldSelect + ", h.x, h.y, h.z, h.yaw, h.pitch, h.is_public";
+
+        upsertSql = "INSERT INTO " + name + " (player_uuid, home_name, " + worldColumn + ", x, y, z, yaw, pitch, is_public) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE " + worldColumn + "=?, x=?, y=?, z=?, yaw=?, pitch=?, is_public=?";
+        updatePublicSql = "UPDATE " + name + " SET is_public = ? WHERE player_uuid = ? AND home_name = ?";
+        renameSql = "UPDATE " + name + " SET home_name = ? WHERE player_uuid = ? AND home_name = ?";
+        deleteSql = "DELETE FROM " + name + " WHERE player_uuid = ? AND home_name = ?";
+
+        loadHomesSql = "SELECT " + columns + " FROM " + from + " WHERE h.player_uuid = ?";
+        loadHomesInSql = "SELECT h.player_uuid, " + columns + " FROM " + from + " WHERE h.player_uuid IN (";
+        loadPublicSql = "SELECT h.player_uuid, h.home_name FROM " + name + " h WHERE h.is_public = true";
+        pageSql = "SELECT h.id, h.player_uuid, " + columns + " FROM " + from + " WHERE h.id > ? ORDER BY h.id LIMIT ?";
+        countSql = "SELECT COUNT(*) FROM " + name;
+
+        // Homes and settings of a joining player in one round-trip: the settings row is repeated
+        // on every home row, and a player without homes still gets one row from the outer joins.
+        // v2 binds the uuid twice, as text for player_settings and as bytes for the homes.
+        loadPlayerSql = "SELECT s.tpa_disabled, s.ignored_players, s.back_history, " + columns + " " +
+                "FROM (SELECT CAST(? AS CHAR(36)) AS player_uuid) p " +
+                "LEFT JOIN player_settings s ON s.player_uuid = p.player_uuid " +
+                (binary
+                        ? "LEFT JOIN homes_v2 h ON h.player_uuid = ? LEFT JOIN worlds w ON w.id = h.world_id"
+                        : "LEFT JOIN player_homes h ON h.player_uuid = p.player_uuid");
+    }
+
+    String loadHomesInSql(int count) {
+        StringBuilder sql = new StringBuilder(loadHomesInSql);
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+}
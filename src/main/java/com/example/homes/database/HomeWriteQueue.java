@@ -0,0 +1,316 @@
+package com.example.homes.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import com.example.homes.HomesPlugin;
+
+/**
+ * Write-behind queue in front of {@link DatabaseManager}.
+ * Mutations are coalesced per (player_uuid, home_name) and flushed as JDBC batches
+ * in a single transaction, either on a fixed cadence or once the queue reaches the batch size.
+ */
+public class HomeWriteQueue {
+
+    public enum Type {
+        UPSERT,
+        PUBLIC,
+        RENAME,
+        DELETE,
+        SETTINGS
+    }
+
+    public static final class Write {
+        public final Type type;
+        public final UUID uuid;
+        public final String name;
+        public final String newName; // RENAME only
+        public final String worldName; // UPSERT only
+        public final double x;
+        public final double y;
+        public final double z;
+        public final float yaw;
+        public final float pitch;
+        public final boolean isPublic;
+        public final PlayerSettings settings; // SETTINGS only
+
+        private Write(Type type, UUID uuid, String name, String newName, String worldName,
+                      double x, double y, double z, float yaw, float pitch, boolean isPublic) {
+            this(type, uuid, name, newName, worldName, x, y, z, yaw, pitch, isPublic, null);
+        }
+
+        private Write(Type type, UUID uuid, String name, String newName, String worldName,
+                      double x, double y, double z, float yaw, float pitch, boolean isPublic, PlayerSettings settings) {
+            this.type = type;
+            this.uuid = uuid;
+            this.name = name;
+            this.newName = newName;
+            this.worldName = worldName;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.isPublic = isPublic;
+            this.settings = settings;
+        }
+
+        public static Write upsert(UUID uuid, HomeRecord home) {
+            return new Write(Type.UPSERT, uuid, home.name(), null, home.worldName(),
+                    home.x(), home.y(), home.z(), home.yaw(), home.pitch(), home.isPublic());
+        }
+
+        public static Write setPublic(UUID uuid, String name, boolean isPublic) {
+            return new Write(Type.PUBLIC, uuid, name, null, null, 0, 0, 0, 0, 0, isPublic);
+        }
+
+        public static Write rename(UUID uuid, String oldName, String newName) {
+            return new Write(Type.RENAME, uuid, oldName, newName, null, 0, 0, 0, 0, 0, false);
+        }
+
+        public static Write delete(UUID uuid, String name) {
+            return new Write(Type.DELETE, uuid, name, null, null, 0, 0, 0, 0, 0, false);
+        }
+
+        // Keyed by player only (name is null), so a newer snapshot replaces a pending one
+        public static Write settings(UUID uuid, PlayerSettings settings) {
+            return new Write(Type.SETTINGS, uuid, null, null, null, 0, 0, 0, 0, 0, false, settings);
+        }
+
+        private Write withPublic(boolean isPublic) {
+            return new Write(type, uuid, name, newName, worldName, x, y, z, yaw, pitch, isPublic);
+        }
+    }
+
+    private record Key(UUID uuid, String name) {
+    }
+
+    private final HomesPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final long flushIntervalTicks;
+    private final int batchSize;
+
+    // Pending writes in submission order, plus the position of the latest write per key.
+    // A RENAME touches two keys, so it acts as a barrier: later writes are never merged into earlier ones.
+    private final Object lock = new Object();
+    private List<Write> pending = new ArrayList<>();
+    private final Map<Key, Integer> index = new HashMap<>();
+    // Batch taken out of pending by the running flush, until it is committed
+    private List<Write> inFlight = List.of();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private BukkitTask flushTask;
+
+    // Stats
+    private volatile long totalEnqueued;
+    private volatile long totalCoalesced;
+    private volatile long totalFlushes;
+    private volatile long totalFlushedWrites;
+    private volatile long totalFlushNanos;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile int lastBatchSize;
+
+    public HomeWriteQueue(HomesPlugin plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.flushIntervalTicks = Math.max(1L, plugin.getConfig().getLong("database.write-behind.flush-interval-ticks", 20L));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("database.write-behind.batch-size", 500));
+    }
+
+    public void start() {
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    // Called on disable: stop the timer and drain everything synchronously before the pool closes
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    public void enqueue(Write write) {
+        int size;
+        synchronized (lock) {
+            add(write);
+            totalEnqueued++;
+            size = pending.size();
+        }
+        if (size >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    // Must hold lock
+    private void add(Write write) {
+        if (write.type == Type.RENAME) {
+            pending.add(write);
+            index.clear();
+            return;
+        }
+
+        Key key = new Key(write.uuid, write.name);
+        Integer position = index.get(key);
+        if (position != null) {
+            pending.set(position, merge(pending.get(position), write));
+            totalCoalesced++;
+        } else {
+            index.put(key, pending.size());
+            pending.add(write);
+        }
+    }
+
+    private Write merge(Write existing, Write incoming) {
+        if (incoming.type != Type.PUBLIC) {
+            // UPSERT and DELETE fully replace whatever was pending for this home
+            return incoming;
+        }
+        switch (existing.type) {
+            case UPSERT:
+                return existing.withPublic(incoming.isPublic);
+            case DELETE:
+                // Updating a deleted row is a no-op anyway
+                return existing;
+            default:
+                return incoming;
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::flush);
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+
+            List<Write> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new ArrayList<>();
+                index.clear();
+                inFlight = batch;
+            }
+
+            long start = System.nanoTime();
+            if (!databaseManager.writeBatch(batch)) {
+                // One bad row (e.g. a rename onto an existing name) must not sink the whole batch
+                plugin.getLogger().warning("Batched home write failed, retrying " + batch.size() + " writes individually.");
+                databaseManager.writeIndividually(batch);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            totalFlushes++;
+            totalFlushedWrites += batch.size();
+            totalFlushNanos += elapsed;
+            lastFlushNanos = elapsed;
+            lastBatchSize = batch.size();
+            if (elapsed > maxFlushNanos) maxFlushNanos = elapsed;
+        } finally {
+            synchronized (lock) {
+                inFlight = List.of();
+            }
+            flushLock.unlock();
+        }
+    }
+
+    // One player's writes that a database read may not see yet (queued or still being flushed), oldest first.
+    // Take this before the read and replay it over the result; replaying a write that did land is harmless.
+    public List<Write> pendingFor(UUID uuid) {
+        List<Write> writes = new ArrayList<>();
+        synchronized (lock) {
+            for (Write write : inFlight) {
+                if (write.uuid.equals(uuid)) writes.add(write);
+            }
+            for (Write write : pending) {
+                if (write.uuid.equals(uuid)) writes.add(write);
+            }
+        }
+        return writes;
+    }
+
+    public static PlayerHomes replay(PlayerHomes homes, List<Write> writes) {
+        for (Write write : writes) {
+            switch (write.type) {
+                case UPSERT:
+                    homes = homes.with(new HomeRecord(write.name, WorldRegistry.idOf(write.worldName),
+                            write.x, write.y, write.z, write.yaw, write.pitch, write.isPublic));
+                    break;
+                case PUBLIC:
+                    homes = homes.withPublic(write.name, write.isPublic);
+                    break;
+                case RENAME:
+                    homes = homes.renamed(write.name, write.newName);
+                    break;
+                case DELETE:
+                    homes = homes.without(write.name);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return homes;
+    }
+
+    public static PlayerData replay(PlayerData data, List<Write> writes) {
+        if (writes.isEmpty()) return data;
+        PlayerSettings settings = data.settings();
+        for (Write write : writes) {
+            if (write.type == Type.SETTINGS) settings = write.settings;
+        }
+        return new PlayerData(replay(data.homes(), writes), settings);
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public long getTotalEnqueued() {
+        return totalEnqueued;
+    }
+
+    public long getTotalCoalesced() {
+        return totalCoalesced;
+    }
+
+    public long getTotalFlushes() {
+        return totalFlushes;
+    }
+
+    public long getTotalFlushedWrites() {
+        return totalFlushedWrites;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    public double getAverageFlushMillis() {
+        long flushes = totalFlushes;
+        return flushes == 0 ? 0 : (totalFlushNanos / (double) flushes) / 1_000_000.0;
+    }
+}
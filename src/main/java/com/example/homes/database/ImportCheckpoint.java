@@ -0,0 +1,8 @@
+package com.example.homes.database;
+
+/**
+ * How far an import has got through a source file: the byte offset just after the last committed
+ * batch, and a checksum of the bytes right before it so a rewritten file isn't resumed mid-line.
+ */
+public record ImportCheckpoint(long offset, long fingerprint) {
+}
@@ -0,0 +1,5 @@
+package com.example.homes.database;
+
+// Everything read for a player at login, from one query
+public record PlayerData(PlayerHomes homes, PlayerSettings settings) {
+}
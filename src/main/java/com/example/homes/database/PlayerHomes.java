@@ -0,0 +1,162 @@
+package com.example.homes.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * All homes of one player as a single immutable array sorted by name.
+ * Mutations return a new instance, so a reference can be handed out and read
+ * from any thread without copying.
+ */
+public final class PlayerHomes {
+
+    public static final PlayerHomes EMPTY = new PlayerHomes(new HomeRecord[0]);
+
+    private static final Comparator<HomeRecord> BY_NAME = Comparator.comparing(HomeRecord::name);
+
+    private final HomeRecord[] homes;
+
+    // Lowercased names in sorted order plus the matching original names, built on the first
+    // completion request. Instances are immutable, so it never has to be invalidated.
+    private volatile String[][] completionIndex;
+
+    private PlayerHomes(HomeRecord[] homes) {
+        this.homes = homes;
+    }
+
+    public static PlayerHomes of(Collection<HomeRecord> records) {
+        if (records.isEmpty()) return EMPTY;
+        HomeRecord[] array = records.toArray(new HomeRecord[0]);
+        Arrays.sort(array, BY_NAME);
+        return new PlayerHomes(array);
+    }
+
+    public int size() {
+        return homes.length;
+    }
+
+    public boolean isEmpty() {
+        return homes.length == 0;
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    public HomeRecord get(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? homes[index] : null;
+    }
+
+    // Sorted by name
+    public List<HomeRecord> list() {
+        return Collections.unmodifiableList(Arrays.asList(homes));
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(homes.length);
+        for (HomeRecord home : homes) {
+            names.add(home.name());
+        }
+        return names;
+    }
+
+    // Up to limit home names starting with prefix (case-insensitive), alphabetical.
+    // A binary search finds the first match, so only the returned names are visited.
+    public List<String> complete(String prefix, int limit) {
+        String[][] index = completionIndex;
+        if (index == null) {
+            index = buildCompletionIndex();
+            completionIndex = index;
+        }
+        String[] keys = index[0];
+        String[] values = index[1];
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int start = Arrays.binarySearch(keys, key);
+        if (start < 0) start = -(start + 1);
+
+        List<String> result = new ArrayList<>();
+        for (int i = start; i < keys.length && result.size() < limit && keys[i].startsWith(key); i++) {
+            result.add(values[i]);
+        }
+        return result;
+    }
+
+    private String[][] buildCompletionIndex() {
+        Integer[] order = new Integer[homes.length];
+        String[] lower = new String[homes.length];
+        for (int i = 0; i < homes.length; i++) {
+            order[i] = i;
+            lower[i] = homes[i].name().toLowerCase(Locale.ROOT);
+        }
+        Arrays.sort(order, Comparator.comparing(i -> lower[i]));
+
+        String[] keys = new String[homes.length];
+        String[] values = new String[homes.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = lower[order[i]];
+            values[i] = homes[order[i]].name();
+        }
+        return new String[][] { keys, values };
+    }
+
+    public PlayerHomes with(HomeRecord record) {
+        int index = indexOf(record.name());
+        if (index >= 0) {
+            HomeRecord[] copy = homes.clone();
+            copy[index] = record;
+            return new PlayerHomes(copy);
+        }
+        int insert = -(index + 1);
+        HomeRecord[] copy = new HomeRecord[homes.length + 1];
+        System.arraycopy(homes, 0, copy, 0, insert);
+        copy[insert] = record;
+        System.arraycopy(homes, insert, copy, insert + 1, homes.length - insert);
+        return new PlayerHomes(copy);
+    }
+
+    public PlayerHomes without(String name) {
+        int index = indexOf(name);
+        if (index < 0) return this;
+        if (homes.length == 1) return EMPTY;
+        HomeRecord[] copy = new HomeRecord[homes.length - 1];
+        System.arraycopy(homes, 0, copy, 0, index);
+        System.arraycopy(homes, index + 1, copy, index, homes.length - index - 1);
+        return new PlayerHomes(copy);
+    }
+
+    public PlayerHomes renamed(String oldName, String newName) {
+        HomeRecord record = get(oldName);
+        if (record == null) return this;
+        return without(oldName).with(record.withName(newName));
+    }
+
+    public PlayerHomes withPublic(String name, boolean isPublic) {
+        HomeRecord record = get(name);
+        if (record == null || record.isPublic() == isPublic) return this;
+        return with(record.withPublic(isPublic));
+    }
+
+    private int indexOf(String name) {
+        int low = 0;
+        int high = homes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = homes[mid].name().compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
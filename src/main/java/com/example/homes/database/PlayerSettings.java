@@ -0,0 +1,39 @@
+package com.example.homes.database;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Per-player preferences stored next to the homes: TPA toggle, ignore list and the
+ * serialized /back history. Loaded in the same query as the homes at login.
+ */
+public record PlayerSettings(boolean tpaDisabled, Set<UUID> ignored, byte[] backHistory) {
+
+    public static final PlayerSettings DEFAULT = new PlayerSettings(false, Collections.emptySet(), null);
+
+    // Comma-separated UUIDs, the format of the ignored_players column
+    String ignoredColumn() {
+        if (ignored.isEmpty()) return null;
+        StringJoiner joiner = new StringJoiner(",");
+        for (UUID uuid : ignored) {
+            joiner.add(uuid.toString());
+        }
+        return joiner.toString();
+    }
+
+    static Set<UUID> parseIgnored(String column) {
+        if (column == null || column.isEmpty()) return Collections.emptySet();
+        Set<UUID> ignored = new HashSet<>();
+        for (String part : column.split(",")) {
+            try {
+                ignored.add(UUID.fromString(part.trim()));
+            } catch (IllegalArgumentException e) {
+                // Ignore invalid UUIDs
+            }
+        }
+        return ignored;
+    }
+}
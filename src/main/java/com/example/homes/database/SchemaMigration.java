@@ -0,0 +1,132 @@
+package com.example.homes.database;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import com.example.homes.HomesPlugin;
+
+/**
+ * Online move from player_homes (v1) to homes_v2 with binary uuids and world ids.
+ * Writes are mirrored into homes_v2 first, then the existing rows are copied over in id order,
+ * one short page at a time in the background, and finally homes_v2 becomes the live table in one step.
+ * Progress is kept in schema_info, so a restart resumes where the copy stopped.
+ */
+public class SchemaMigration {
+
+    private static final int PAGE_SIZE = 1000;
+    // Pause between pages so the copy never takes the database away from players for long
+    private static final long PAGE_PAUSE_MILLIS = 20L;
+
+    private final HomesPlugin plugin;
+    private final DatabaseManager database;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile long copied;
+    private volatile long total;
+
+    public SchemaMigration(HomesPlugin plugin, DatabaseManager database) {
+        this.plugin = plugin;
+        this.database = database;
+    }
+
+    // Pick up a copy that was interrupted by a restart
+    public void resumeIfPending() {
+        if (database.isMigrating()) {
+            plugin.getLogger().info("Resuming the homes_v2 schema migration");
+            start(null);
+        }
+    }
+
+    public void start(CommandSender sender) {
+        if (database.getSchemaVersion() == 2) {
+            if (sender != null) sender.sendMessage(ChatColor.YELLOW + "すでに新しいスキーマ (v2) を使用しています。");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            if (sender != null) sender.sendMessage(ChatColor.RED + "移行はすでに実行中です。");
+            return;
+        }
+        if (sender != null) sender.sendMessage(ChatColor.GREEN + "スキーマ移行を開始します... バックグラウンドで処理されます。");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                boolean switched = run();
+                long elapsed = System.currentTimeMillis() - start;
+                if (switched) {
+                    plugin.getLogger().info("Schema migration finished: " + copied + " homes copied to homes_v2 in " + elapsed + "ms");
+                } else {
+                    plugin.getLogger().warning("Schema migration stopped before switching, still writing to both tables");
+                }
+                if (sender != null) {
+                    plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(switched
+                            ? ChatColor.GREEN + "スキーマ移行が完了しました (" + copied + " 件, " + elapsed + "ms)"
+                            : ChatColor.RED + "切り替えを中止しました (詳細はログを確認してください)。/homes migrate-schema で再試行、行数の不一致なら /homes migrate-schema restart で再実行してください。"));
+                }
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Schema migration failed: " + e);
+                if (sender != null) {
+                    plugin.getServer().getScheduler().runTask(plugin, () ->
+                            sender.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage()));
+                }
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    // Throw away the partial copy and start over, e.g. after a count mismatch
+    public void restart(CommandSender sender) {
+        if (running.get()) {
+            sender.sendMessage(ChatColor.RED + "移行はすでに実行中です。");
+            return;
+        }
+        if (database.getSchemaVersion() == 2) {
+            sender.sendMessage(ChatColor.YELLOW + "すでに新しいスキーマ (v2) を使用しています。");
+            return;
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            database.resetMigration();
+            plugin.getServer().getScheduler().runTask(plugin, () -> start(sender));
+        });
+    }
+
+    private boolean run() {
+        database.beginMigration();
+        total = database.countHomes(1);
+        long cursor = Math.max(0, database.getMigrationCursor());
+        // Resumed copies only count from here, close enough for a progress display
+        copied = 0;
+
+        long next;
+        while ((next = database.copyMigrationPage(cursor, PAGE_SIZE)) >= 0) {
+            cursor = next;
+            copied += PAGE_SIZE;
+            try {
+                Thread.sleep(PAGE_PAUSE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        boolean switched = database.finishMigration(cursor, PAGE_SIZE);
+        if (switched) {
+            total = database.countHomes(2);
+            copied = total;
+        }
+        return switched;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getCopied() {
+        return Math.min(copied, total);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
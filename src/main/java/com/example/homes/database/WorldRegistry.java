@@ -0,0 +1,42 @@
+package com.example.homes.database;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns world names to small int ids, so cached homes hold neither a World
+ * nor a world-name String per home. Ids only live as long as the server process.
+ */
+public final class WorldRegistry {
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[8];
+    private static int size;
+
+    private WorldRegistry() {
+    }
+
+    public static int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+
+        synchronized (WorldRegistry.class) {
+            id = ids.get(name);
+            if (id != null) return id;
+
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = name;
+            names = current; // Publish before the id becomes visible
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+}
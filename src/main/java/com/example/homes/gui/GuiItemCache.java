@@ -0,0 +1,262 @@
+package com.example.homes.gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.config.PluginSettings;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.manager.EconomyManager;
+
+/**
+ * Prebuilt ItemStacks for HomeGUI.
+ * Buttons are built once per settings snapshot, home icons are cached by HomeRecord value
+ * (so any change to a home is a new key) and view mode. Inventory#setItem copies the stack,
+ * so templates are handed out as-is and never modified afterwards.
+ * Main thread only.
+ */
+public class GuiItemCache {
+
+    private static final int MAX_HOME_ICONS = 4096;
+    private static final int MAX_CREATE_BUTTONS = 256;
+    private static final GuiMode[] MODES = GuiMode.values();
+
+    private final HomesPlugin plugin;
+    private final EconomyManager economyManager;
+
+    private PluginSettings builtFor;
+    private ItemStack deleteOn;
+    private ItemStack deleteOff;
+    private ItemStack renameOn;
+    private ItemStack renameOff;
+    private ItemStack publicOn;
+    private ItemStack publicOff;
+    private ItemStack prevPage;
+    private ItemStack nextPage;
+
+    // (current << 32 | max) -> create button, the only button with per-player text
+    private final Map<Long, ItemStack> createButtons = new HashMap<>();
+
+    // Least recently used icons are dropped first
+    private final LinkedHashMap<HomeRecord, ItemStack[]> homeIcons = new LinkedHashMap<HomeRecord, ItemStack[]>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<HomeRecord, ItemStack[]> eldest) {
+            return size() > MAX_HOME_ICONS;
+        }
+    };
+
+    // Stats
+    private long iconHits;
+    private long iconMisses;
+    private long renders;
+    private long totalRenderNanos;
+    private long maxRenderNanos;
+    private long updates;
+    private long updatedSlots;
+
+    public GuiItemCache(HomesPlugin plugin, EconomyManager economyManager) {
+        this.plugin = plugin;
+        this.economyManager = economyManager;
+    }
+
+    // Rebuild everything if /homes reload swapped the settings
+    private PluginSettings.Gui gui() {
+        PluginSettings settings = plugin.getSettings();
+        if (settings != builtFor) {
+            rebuild(settings);
+        }
+        return settings.gui;
+    }
+
+    private void rebuild(PluginSettings settings) {
+        PluginSettings.Gui gui = settings.gui;
+        deleteOn = item(Material.TNT, gui.deleteButtonNameOn, gui.deleteButtonLoreOn, false);
+        deleteOff = item(Material.BARRIER, gui.deleteButtonNameOff, gui.deleteButtonLoreOff, false);
+        // Glint instead of a hidden enchantment
+        renameOn = item(Material.NAME_TAG, gui.renameButtonNameOn, gui.renameButtonLoreOn, true);
+        renameOff = item(Material.NAME_TAG, gui.renameButtonNameOff, gui.renameButtonLoreOff, false);
+        publicOn = item(Material.ENDER_EYE, gui.publicButtonNameOn, gui.publicButtonLoreOn, false);
+        publicOff = item(Material.ENDER_PEARL, gui.publicButtonNameOff, gui.publicButtonLoreOff, false);
+        prevPage = item(Material.ARROW, ChatColor.GREEN + "← 前のページ", null, false);
+        nextPage = item(Material.ARROW, ChatColor.GREEN + "次のページ →", null, false);
+        createButtons.clear();
+        homeIcons.clear();
+        builtFor = settings;
+    }
+
+    public ItemStack deleteButton(boolean on) {
+        gui();
+        return on ? deleteOn : deleteOff;
+    }
+
+    public ItemStack renameButton(boolean on) {
+        gui();
+        return on ? renameOn : renameOff;
+    }
+
+    public ItemStack publicButton(boolean on) {
+        gui();
+        return on ? publicOn : publicOff;
+    }
+
+    public ItemStack prevPage() {
+        gui();
+        return prevPage;
+    }
+
+    public ItemStack nextPage() {
+        gui();
+        return nextPage;
+    }
+
+    public ItemStack createButton(int current, int max) {
+        PluginSettings.Gui gui = gui();
+        long key = ((long) current << 32) | (max & 0xFFFFFFFFL);
+        ItemStack cached = createButtons.get(key);
+        if (cached != null) return cached;
+
+        List<String> lore = new ArrayList<>(gui.createButtonLore);
+        // Show limit info
+        lore.add(ChatColor.YELLOW + "現在の作成数: " + current + " / " + max);
+        // Show cost
+        if (economyManager != null && economyManager.hasEconomy()) {
+            double cost = builtFor.costSetHome;
+            if (cost > 0) {
+                lore.add(ChatColor.GOLD + "費用: " + economyManager.format(cost));
+            }
+        }
+        ItemStack item = item(Material.ANVIL, gui.createButtonName, lore, false);
+        if (createButtons.size() >= MAX_CREATE_BUTTONS) {
+            createButtons.clear();
+        }
+        createButtons.put(key, item);
+        return item;
+    }
+
+    public ItemStack homeIcon(HomeRecord home, GuiMode mode) {
+        PluginSettings.Gui gui = gui();
+        ItemStack[] byMode = homeIcons.get(home);
+        if (byMode == null) {
+            byMode = new ItemStack[MODES.length];
+            homeIcons.put(home, byMode);
+        }
+        ItemStack icon = byMode[mode.ordinal()];
+        if (icon != null) {
+            iconHits++;
+            return icon;
+        }
+        iconMisses++;
+        icon = buildHomeIcon(gui, home, mode);
+        byMode[mode.ordinal()] = icon;
+        return icon;
+    }
+
+    private ItemStack buildHomeIcon(PluginSettings.Gui gui, HomeRecord home, GuiMode mode) {
+        List<String> lore = new ArrayList<>();
+
+        // Add base lore
+        for (String line : gui.homeIconLore) {
+            lore.add(line.replace("{world}", home.worldName())
+                         .replace("{x}", String.valueOf(home.blockX()))
+                         .replace("{y}", String.valueOf(home.blockY()))
+                         .replace("{z}", String.valueOf(home.blockZ())));
+        }
+
+        // Public Status
+        if (home.isPublic()) {
+            lore.add(ChatColor.GREEN + "公開中");
+        } else {
+            lore.add(ChatColor.RED + "非公開");
+        }
+
+        // Add action specific lore
+        switch (mode) {
+            case DELETE:
+                lore.addAll(gui.homeIconLoreDelete);
+                break;
+            case PUBLIC:
+                lore.add(ChatColor.YELLOW + "クリックして公開/非公開を切り替え");
+                break;
+            case RENAME:
+                lore.add(ChatColor.YELLOW + "クリックして名前を変更");
+                break;
+            default:
+                // Show cost if cost enabled
+                if (economyManager != null && economyManager.hasEconomy()) {
+                    double cost = builtFor.costTeleport;
+                    if (cost > 0) {
+                        lore.add(ChatColor.GOLD + "テレポート費用: " + economyManager.format(cost));
+                    }
+                }
+                lore.addAll(gui.homeIconLoreTeleport);
+                break;
+        }
+
+        // Determine icon material based on world
+        return item(gui.worldIcon(home.worldName()), gui.homeIconName.replace("{name}", home.name()), lore, false);
+    }
+
+    private static ItemStack item(Material material, String name, List<String> lore, boolean glint) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            if (lore != null) meta.setLore(lore);
+            if (glint) meta.setEnchantmentGlintOverride(true);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+
+    void recordRender(long nanos) {
+        renders++;
+        totalRenderNanos += nanos;
+        if (nanos > maxRenderNanos) maxRenderNanos = nanos;
+    }
+
+    // In-place update that sent only the changed slots
+    void recordUpdate(int slots, long nanos) {
+        updates++;
+        updatedSlots += slots;
+        totalRenderNanos += nanos;
+        renders++;
+        if (nanos > maxRenderNanos) maxRenderNanos = nanos;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public double getAverageUpdatedSlots() {
+        return updates == 0 ? 0 : updatedSlots / (double) updates;
+    }
+
+    public long getRenders() {
+        return renders;
+    }
+
+    public double getAverageRenderMillis() {
+        return renders == 0 ? 0 : (totalRenderNanos / (double) renders) / 1_000_000.0;
+    }
+
+    public double getMaxRenderMillis() {
+        return maxRenderNanos / 1_000_000.0;
+    }
+
+    public int getCachedHomes() {
+        return homeIcons.size();
+    }
+
+    public double getIconHitRate() {
+        long total = iconHits + iconMisses;
+        return total == 0 ? 0 : iconHits / (double) total;
+    }
+}
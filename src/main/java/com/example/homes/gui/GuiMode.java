@@ -0,0 +1,9 @@
+package com.example.homes.gui;
+
+// What a click on a home icon does in HomeGUI
+public enum GuiMode {
+    TELEPORT,
+    DELETE,
+    PUBLIC,
+    RENAME
+}
@@ -1,32 +1,27 @@
 package com.example.homes.gui;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 
 import com.example.homes.HomesPlugin;
+import com.example.homes.config.PluginSettings;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.PlayerHomes;
 import com.example.homes.manager.EconomyManager;
 import com.example.homes.manager.HomeManager;
 import com.example.homes.manager.InputListener;
@@ -41,16 +36,10 @@ public class HomeGUI implements Listener {
     private final SoundManager soundManager;
     private final EconomyManager economyManager;
     private InputListener inputListener;
+    private final GuiItemCache itemCache;
     private static final int GUI_SIZE_SMALL = 27;
     private static final int GUI_SIZE_LARGE = 54;
-    private final Set<UUID> deleteModePlayers = new HashSet<>();
-    private final Set<UUID> publicModePlayers = new HashSet<>();
-    private final Set<UUID> renameModePlayers = new HashSet<>();
-    
-    // Pagination state
-    private final Map<UUID, Integer> currentStartIndex = new HashMap<>();
-    private final Map<UUID, Stack<Integer>> pageHistory = new HashMap<>();
-    private final Map<UUID, Integer> lastPageSize = new HashMap<>();
+    // Per-viewer mode and page live in HomeGUISession, the holder of each open inventory
 
     public HomeGUI(HomesPlugin plugin, HomeManager homeManager, TeleportManager teleportManager, SoundManager soundManager, EconomyManager economyManager) {
         this.plugin = plugin;
@@ -58,9 +47,15 @@ public class HomeGUI implements Listener {
         this.teleportManager = teleportManager;
         this.soundManager = soundManager;
         this.economyManager = economyManager;
+        this.itemCache = new GuiItemCache(plugin, economyManager);
+        homeManager.addChangeListener(this::onHomesChanged);
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
+    public GuiItemCache getItemCache() {
+        return itemCache;
+    }
+
     public void setInputListener(InputListener inputListener) {
         this.inputListener = inputListener;
     }
@@ -71,227 +66,150 @@ public class HomeGUI implements Listener {
     
     public void open(Player viewer, OfflinePlayer target) {
         // Floodgate check removed
-        
         boolean isOwner = viewer.getUniqueId().equals(target.getUniqueId());
         boolean isAdmin = viewer.hasPermission("homes.admin") && !isOwner;
-        
-        boolean deleteMode = deleteModePlayers.contains(viewer.getUniqueId());
-        boolean publicMode = publicModePlayers.contains(viewer.getUniqueId());
-        boolean renameMode = renameModePlayers.contains(viewer.getUniqueId());
-        
-        String titleKey = "gui.title";
-        if (deleteMode) titleKey = "gui.delete-mode-title";
-        else if (publicMode) titleKey = "gui.public-mode-title";
-        else if (renameMode) titleKey = "gui.rename-mode-title";
-        
-        String defaultTitle = "ホーム一覧";
-        if (deleteMode) defaultTitle = "&c削除モード (クリックで削除)";
-        else if (publicMode) defaultTitle = "&b公開設定モード (クリックで切替)";
-        else if (renameMode) defaultTitle = "&eリネームモード (クリックで名前変更)";
-        
-        if (!isOwner) {
-            String name = target.getName() != null ? target.getName() : "Unknown";
-            defaultTitle = name + "のホーム";
-            titleKey = "gui.title-other"; // Custom key if wanted, fallback to defaultTitle
+        String name = target.getName() != null ? target.getName() : "Unknown";
+        reopen(viewer, new HomeGUISession(viewer.getUniqueId(), target.getUniqueId(), name, isOwner, isAdmin));
+    }
+
+    // Render an existing session again, keeping its mode and page
+    public void reopen(Player viewer, HomeGUISession session) {
+        if (session.getHomes() != null) {
+            // Kept current by onHomesChanged, no need to load again
+            render(viewer, session, session.getHomes());
+            return;
         }
-        
-        String title = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString(titleKey, defaultTitle));
-        
-        // Load and Sort Homes
-        // HomeManager.getHomes(OfflinePlayer) or getHomes(UUID) needed
-        Map<String, Location> homesMap = homeManager.getHomes(target.getUniqueId());
-        List<String> visibleHomes = getVisibleHomes(viewer, target, homesMap);
-        Collections.sort(visibleHomes); // Sort by name for consistent order
-
-        // Determine GUI Size
-        int guiSize = GUI_SIZE_SMALL;
-        if (visibleHomes.size() > 18) {
-            guiSize = GUI_SIZE_LARGE;
+
+        // Homes of offline targets are read off the main thread; render once they arrive
+        UUID targetId = session.getTargetId();
+        homeManager.getHomesAsync(targetId)
+                .thenAccept(homes -> {
+                    if (viewer.isOnline()) {
+                        render(viewer, session, homes);
+                    }
+                })
+                .exceptionally(e -> {
+                    plugin.getLogger().warning("Failed to load homes for " + targetId + ": " + e.getMessage());
+                    return null;
+                });
+    }
+
+    // Full render into a new inventory. Only needed when the window is first opened or its size changes.
+    private void render(Player viewer, HomeGUISession session, PlayerHomes homes) {
+        long renderStart = System.nanoTime();
+        setSnapshot(session, homes);
+
+        String title = title(session);
+        int guiSize = guiSize(session);
+        Inventory inv = Bukkit.createInventory(session, guiSize, title);
+        session.setInventory(inv);
+
+        ItemStack[] contents = layout(viewer, session, guiSize);
+        inv.setContents(contents);
+        session.setShown(contents);
+
+        viewer.openInventory(inv);
+        itemCache.recordRender(System.nanoTime() - renderStart);
+    }
+
+    // Apply a page flip, mode toggle or home change to the open inventory, touching only the slots that differ
+    private void update(Player viewer, HomeGUISession session, PlayerHomes homes) {
+        setSnapshot(session, homes);
+
+        Inventory inv = session.getInventory();
+        int guiSize = guiSize(session);
+        if (inv == null || inv.getSize() != guiSize || viewer.getOpenInventory().getTopInventory() != inv) {
+            // Crossed the small/large threshold (or the window is gone), the size can't change in place
+            render(viewer, session, homes);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ItemStack[] contents = layout(viewer, session, guiSize);
+        ItemStack[] shown = session.getShown();
+        int changed = 0;
+        for (int i = 0; i < contents.length; i++) {
+            // Templates are shared instances, so identity tells whether the slot changed
+            if (contents[i] != shown[i]) {
+                inv.setItem(i, contents[i]);
+                changed++;
+            }
+        }
+        session.setShown(contents);
+        itemCache.recordUpdate(changed, System.nanoTime() - start);
+    }
+
+    // The visible list is only rebuilt when the homes themselves changed, never for a page flip
+    private void setSnapshot(HomeGUISession session, PlayerHomes homes) {
+        if (homes != session.getHomes()) {
+            session.setHomes(homes, getVisibleHomes(session, homes));
+        }
+    }
+
+    // Same title in every mode: changing it resends the whole window, so the mode only shows on its button
+    private String title(HomeGUISession session) {
+        PluginSettings.Gui gui = plugin.getSettings().gui;
+        if (!session.isOwner()) {
+            // Custom key if wanted, fallback to "<name>のホーム"
+            return gui.titleOther != null ? gui.titleOther : session.getTargetName() + "のホーム";
         }
+        return gui.title;
+    }
+
+    private int guiSize(HomeGUISession session) {
+        return session.getVisibleHomes().size() > 18 ? GUI_SIZE_LARGE : GUI_SIZE_SMALL;
+    }
 
-        Inventory inv = Bukkit.createInventory(null, guiSize, title);
+    // Lay out the current page of the session's snapshot, recording which home sits in which slot
+    private ItemStack[] layout(Player viewer, HomeGUISession session, int guiSize) {
+        ItemStack[] contents = new ItemStack[guiSize];
+        session.clearSlots(guiSize);
+        boolean isOwner = session.isOwner();
+        boolean isAdmin = session.isAdmin();
+        GuiMode mode = session.getMode();
+        List<HomeRecord> visibleHomes = session.getVisibleHomes();
 
         // Slot 0: Create Home Button (Top Left) - Only for Owner
         if (isOwner) {
-            ItemStack createItem = new ItemStack(Material.ANVIL);
-            ItemMeta createMeta = createItem.getItemMeta();
-            if (createMeta != null) {
-                String name = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString("gui.create-button.name", "&aホームを作成する"));
-                createMeta.setDisplayName(name);
-                List<String> lore = new ArrayList<>();
-                for (String line : plugin.getConfig().getStringList("gui.create-button.lore")) {
-                    lore.add(ChatColor.translateAlternateColorCodes('&', line));
-                }
-                
-                // Show limit info
-                int current = homeManager.getHomes(target.getUniqueId()).size();
-                // Check max homes. OfflinePlayer might not work with permissions check easily if strictly permission based.
-                // But HomeManager.getMaxHomes takes Player. 
-                // If offline, we can't check permissions easily without vault or luckperms api.
-                // Assuming Owner is Online Player if we are here (open(Player, Player) calls this).
-                // Wait, if target is Offline, we can't cast to Player.
-                // But Create Home is only for Owner. Owner must be online to click.
-                // So if isOwner, target IS viewer, so target is Online.
-                int max = 0;
-                if (target.isOnline()) {
-                     max = homeManager.getMaxHomes((Player)target);
-                } else {
-                     // Fallback or specific logic for offline? Owner can't be offline and viewing.
-                     // So this branch is safe.
-                     max = plugin.getConfig().getInt("settings.default-home-limit", 1);
-                }
-                
-                lore.add(ChatColor.YELLOW + "現在の作成数: " + current + " / " + max);
-                
-                // Show cost
-                if (economyManager != null && economyManager.hasEconomy()) {
-                     double cost = plugin.getConfig().getDouble("economy.cost.set-home", 0);
-                     if (cost > 0) {
-                         lore.add(ChatColor.GOLD + "費用: " + economyManager.format(cost));
-                     }
-                }
-                
-                createMeta.setLore(lore);
-                createItem.setItemMeta(createMeta);
-            }
-            inv.setItem(0, createItem);
+            // Show limit info; Create Home is only for Owner, and the owner is the viewer
+            contents[0] = itemCache.createButton(session.getHomes().size(), homeManager.getMaxHomes(viewer));
         }
 
         // Slot 8: Delete Mode Button (Top Right) - Only for Owner or Admin
         if (isOwner || isAdmin) {
-            ItemStack deleteItem;
-            if (deleteMode) {
-                deleteItem = new ItemStack(Material.TNT);
-            } else {
-                deleteItem = new ItemStack(Material.BARRIER);
-            }
-            ItemMeta deleteMeta = deleteItem.getItemMeta();
-            if (deleteMeta != null) {
-                String nameKey = deleteMode ? "gui.delete-button.name-on" : "gui.delete-button.name-off";
-                String defaultName = deleteMode ? "&c削除モード: ON" : "&a削除モード: OFF";
-                deleteMeta.setDisplayName(ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString(nameKey, defaultName)));
-                
-                List<String> lore = new ArrayList<>();
-                String loreKey = deleteMode ? "gui.delete-button.lore-on" : "gui.delete-button.lore-off";
-                for (String line : plugin.getConfig().getStringList(loreKey)) {
-                    lore.add(ChatColor.translateAlternateColorCodes('&', line));
-                }
-                deleteMeta.setLore(lore);
-                deleteItem.setItemMeta(deleteMeta);
-            }
-            inv.setItem(8, deleteItem);
+            contents[8] = itemCache.deleteButton(mode == GuiMode.DELETE);
         }
         
         // Slot 1: Rename Mode Button (Next to Anvil) - Only for Owner
         if (isOwner) {
-            ItemStack renameItem;
-            if (renameMode) {
-                renameItem = new ItemStack(Material.NAME_TAG);
-                renameItem.addUnsafeEnchantment(Enchantment.DURABILITY, 1);
-            } else {
-                renameItem = new ItemStack(Material.NAME_TAG);
-            }
-            ItemMeta renameMeta = renameItem.getItemMeta();
-            if (renameMeta != null) {
-                renameMeta.addItemFlags(ItemFlag.HIDE_ENCHANTS);
-                String nameKey = renameMode ? "gui.rename-button.name-on" : "gui.rename-button.name-off";
-                String defaultName = renameMode ? "&eリネームモード: ON" : "&aリネームモード: OFF";
-                renameMeta.setDisplayName(ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString(nameKey, defaultName)));
-                
-                List<String> lore = new ArrayList<>();
-                String loreKey = renameMode ? "gui.rename-button.lore-on" : "gui.rename-button.lore-off";
-                
-                List<String> defaultLore = new ArrayList<>();
-                if (renameMode) defaultLore.add("&7クリックしてモードを終了");
-                else defaultLore.add("&7クリックしてリネームモードに切替");
-                
-                List<String> configLore = plugin.getConfig().getStringList(loreKey);
-                if (configLore.isEmpty()) configLore = defaultLore;
-                
-                for (String line : configLore) {
-                    lore.add(ChatColor.translateAlternateColorCodes('&', line));
-                }
-                renameMeta.setLore(lore);
-                renameItem.setItemMeta(renameMeta);
-            }
-            // Slot 1: Rename Mode (Next to Anvil)
-            inv.setItem(1, renameItem);
+            contents[1] = itemCache.renameButton(mode == GuiMode.RENAME);
         }
         
         // Slot 7: Public Mode Button (Next to Delete) - Only for Owner
         if (isOwner) {
-            ItemStack publicItem;
-            if (publicMode) {
-                publicItem = new ItemStack(Material.ENDER_EYE);
-            } else {
-                publicItem = new ItemStack(Material.ENDER_PEARL);
-            }
-            ItemMeta publicMeta = publicItem.getItemMeta();
-            if (publicMeta != null) {
-                String nameKey = publicMode ? "gui.public-button.name-on" : "gui.public-button.name-off";
-                String defaultName = publicMode ? "&b公開設定モード: ON" : "&a公開設定モード: OFF";
-                publicMeta.setDisplayName(ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString(nameKey, defaultName)));
-                
-                List<String> lore = new ArrayList<>();
-                String loreKey = publicMode ? "gui.public-button.lore-on" : "gui.public-button.lore-off";
-                // Default lore if config missing
-                List<String> defaultLore = new ArrayList<>();
-                if (publicMode) defaultLore.add("&7クリックしてモードを終了");
-                else defaultLore.add("&7クリックして公開設定モードに切替");
-                
-                List<String> configLore = plugin.getConfig().getStringList(loreKey);
-                if (configLore.isEmpty()) configLore = defaultLore;
-                
-                for (String line : configLore) {
-                    lore.add(ChatColor.translateAlternateColorCodes('&', line));
-                }
-                publicMeta.setLore(lore);
-                publicItem.setItemMeta(publicMeta);
-            }
-            inv.setItem(7, publicItem);
+            contents[7] = itemCache.publicButton(mode == GuiMode.PUBLIC);
         }
         
-        // Pagination Logic
-        if (!currentStartIndex.containsKey(viewer.getUniqueId())) {
-            currentStartIndex.put(viewer.getUniqueId(), 0);
-        }
-        if (!pageHistory.containsKey(viewer.getUniqueId())) {
-            pageHistory.put(viewer.getUniqueId(), new Stack<>());
-        }
-
-        int startIndex = currentStartIndex.get(viewer.getUniqueId());
         // Validation: if start index out of bounds, reset
-        if (startIndex >= visibleHomes.size() && !visibleHomes.isEmpty()) {
-            startIndex = 0;
-            currentStartIndex.put(viewer.getUniqueId(), 0);
-            pageHistory.get(viewer.getUniqueId()).clear();
+        if (session.getStartIndex() >= visibleHomes.size() && !visibleHomes.isEmpty()) {
+            session.resetPage();
         }
+        int startIndex = session.getStartIndex();
 
-        boolean hasPrev = !pageHistory.get(viewer.getUniqueId()).isEmpty();
+        boolean hasPrev = session.hasPreviousPage();
         int homesDisplayed = 0;
         
         // Iterate slots
         int startSlot = 9;
         int endSlot = guiSize - 1; // 26 or 53
         
-        // Get world icons config
-        String defaultIcon = plugin.getConfig().getString("gui.home-icon.default-material", "RED_BED");
-        Material defaultMat = Material.getMaterial(defaultIcon);
-        if (defaultMat == null) defaultMat = Material.RED_BED;
-        ConfigurationSection worldIcons = plugin.getConfig().getConfigurationSection("gui.home-icon.world-icons");
-
         for (int i = startSlot; i <= endSlot; i++) {
             // Navigation Buttons (Only for Large GUI)
             if (guiSize == GUI_SIZE_LARGE) {
                 if (i == 45 && hasPrev) {
                     // Previous Button
-                    ItemStack prevItem = new ItemStack(Material.ARROW);
-                    ItemMeta prevMeta = prevItem.getItemMeta();
-                    if (prevMeta != null) {
-                        prevMeta.setDisplayName(ChatColor.GREEN + "← 前のページ");
-                        prevItem.setItemMeta(prevMeta);
-                    }
-                    inv.setItem(i, prevItem);
+                    contents[i] = itemCache.prevPage();
+                    session.setPrevSlot(i);
                     continue;
                 }
                 if (i == 53) {
@@ -300,13 +218,8 @@ public class HomeGUI implements Listener {
                     int remaining = visibleHomes.size() - (startIndex + homesDisplayed);
                     if (remaining > 1) { // Need more than just this slot
                         // Next Button
-                        ItemStack nextItem = new ItemStack(Material.ARROW);
-                        ItemMeta nextMeta = nextItem.getItemMeta();
-                        if (nextMeta != null) {
-                            nextMeta.setDisplayName(ChatColor.GREEN + "次のページ →");
-                            nextItem.setItemMeta(nextMeta);
-                        }
-                        inv.setItem(i, nextItem);
+                        contents[i] = itemCache.nextPage();
+                        session.setNextSlot(i);
                         continue;
                     }
                 }
@@ -314,93 +227,51 @@ public class HomeGUI implements Listener {
 
             // Place Home
             if (startIndex + homesDisplayed < visibleHomes.size()) {
-                String homeName = visibleHomes.get(startIndex + homesDisplayed);
-                Location loc = homesMap.get(homeName);
-                boolean isPublic = homeManager.isPublic(target.getUniqueId(), homeName);
-                
-                // Determine icon material based on world
-                Material iconMat = defaultMat;
-                if (worldIcons != null && loc.getWorld() != null) {
-                    String worldName = loc.getWorld().getName();
-                    String matName = worldIcons.getString(worldName);
-                    if (matName != null) {
-                        Material m = Material.getMaterial(matName);
-                        if (m != null) iconMat = m;
-                    }
-                }
-
-                ItemStack item = new ItemStack(iconMat);
-                ItemMeta meta = item.getItemMeta();
-                if (meta != null) {
-                    String nameTmpl = plugin.getConfig().getString("gui.home-icon.name", "&6{name}");
-                    meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', nameTmpl.replace("{name}", homeName)));
-                    
-                    List<String> lore = new ArrayList<>();
-                    
-                    // Add base lore
-                    for (String line : plugin.getConfig().getStringList("gui.home-icon.lore")) {
-                        String l = line.replace("{world}", loc.getWorld().getName())
-                                       .replace("{x}", String.valueOf(loc.getBlockX()))
-                                       .replace("{y}", String.valueOf(loc.getBlockY()))
-                                       .replace("{z}", String.valueOf(loc.getBlockZ()));
-                        lore.add(ChatColor.translateAlternateColorCodes('&', l));
-                    }
-                    
-                    // Public Status
-                    if (isPublic) {
-                        lore.add(ChatColor.GREEN + "公開中");
-                    } else {
-                        lore.add(ChatColor.RED + "非公開");
-                    }
-                    
-                    // Add action specific lore
-                    List<String> actionLore = new ArrayList<>(); // Initialize empty
-                    if (deleteMode) {
-                        actionLore = plugin.getConfig().getStringList("gui.home-icon.lore-delete");
-                    } else if (publicMode) {
-                         actionLore.add(ChatColor.YELLOW + "クリックして公開/非公開を切り替え");
-                    } else if (renameMode) {
-                         actionLore.add(ChatColor.YELLOW + "クリックして名前を変更");
-                    } else {
-                        actionLore = plugin.getConfig().getStringList("gui.home-icon.lore-teleport");
-                        // Show cost if not owner and cost enabled
-                        if (economyManager != null && economyManager.hasEconomy()) {
-                             double cost = plugin.getConfig().getDouble("economy.cost.teleport", 0);
-                             if (cost > 0) {
-                                 lore.add(ChatColor.GOLD + "テレポート費用: " + economyManager.format(cost));
-                             }
-                        }
-                    }
-                    
-                    for (String line : actionLore) {
-                        lore.add(ChatColor.translateAlternateColorCodes('&', line));
-                    }
-                    
-                    meta.setLore(lore);
-                    item.setItemMeta(meta);
-                }
-                
-                inv.setItem(i, item);
+                HomeRecord home = visibleHomes.get(startIndex + homesDisplayed);
+                contents[i] = itemCache.homeIcon(home, mode);
+                session.setHome(i, home);
                 homesDisplayed++;
             } else {
                 break; // No more homes
             }
         }
         
-        lastPageSize.put(viewer.getUniqueId(), homesDisplayed);
+        session.setPageSize(homesDisplayed);
+        return contents;
+    }
 
-        viewer.openInventory(inv);
+    // Called by HomeManager after every write; updates GUIs that currently show that player's homes
+    private void onHomesChanged(UUID uuid, UnaryOperator<PlayerHomes> change) {
+        if (!Bukkit.isPrimaryThread()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> onHomesChanged(uuid, change));
+            return;
+        }
+        for (Player viewer : Bukkit.getOnlinePlayers()) {
+            InventoryHolder holder = viewer.getOpenInventory().getTopInventory().getHolder();
+            if (holder instanceof ConfirmGUI confirm) {
+                // Not visible right now, but reopened from its snapshot once the dialog closes
+                HomeGUISession parent = confirm.getParent();
+                if (parent.getTargetId().equals(uuid) && parent.getHomes() != null) {
+                    setSnapshot(parent, change.apply(parent.getHomes()));
+                }
+                continue;
+            }
+            if (holder instanceof HomeGUISession session && session.getTargetId().equals(uuid) && session.getHomes() != null) {
+                // Apply the same change to the session's own snapshot, so it's right even if the target isn't cached
+                update(viewer, session, change.apply(session.getHomes()));
+            }
+        }
     }
     
-    private List<String> getVisibleHomes(Player viewer, OfflinePlayer target, Map<String, Location> homes) {
-        List<String> visibleHomes = new ArrayList<>();
-        boolean isOwner = viewer.getUniqueId().equals(target.getUniqueId());
-        boolean isAdmin = viewer.hasPermission("homes.admin") && !isOwner;
-        
-        for (String name : homes.keySet()) {
-            boolean isPublic = homeManager.isPublic(target.getUniqueId(), name);
-            if (isOwner || isAdmin || isPublic) {
-                visibleHomes.add(name);
+    private List<HomeRecord> getVisibleHomes(HomeGUISession session, PlayerHomes homes) {
+        if (session.isOwner() || session.isAdmin()) {
+            return homes.list();
+        }
+
+        List<HomeRecord> visibleHomes = new ArrayList<>();
+        for (HomeRecord home : homes.list()) {
+            if (home.isPublic()) {
+                visibleHomes.add(home);
             }
         }
         return visibleHomes;
@@ -408,22 +279,15 @@ public class HomeGUI implements Listener {
 
     @EventHandler
     public void onClick(InventoryClickEvent event) {
-        // Check both titles (Normal and Delete Mode) - AND match flexible titles if possible
-        String title = event.getView().getTitle();
-        // Simple check
-        if (!title.contains("ホーム") && !title.contains("削除") && !title.contains("公開") && !title.contains("リネーム")) {
-             return;
+        // Our inventories carry their session (or confirm dialog) as holder; anything else isn't ours
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (holder instanceof ConfirmGUI confirm) {
+            confirm.onClick(event);
+            return;
+        }
+        if (!(holder instanceof HomeGUISession session)) {
+            return;
         }
-        // Better: Check if title equals config strings
-        String normalTitle = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString("gui.title", "ホーム一覧"));
-        String deleteTitle = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString("gui.delete-mode-title", "&c削除モード (クリックで削除)"));
-        String publicTitle = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString("gui.public-mode-title", "&b公開設定モード (クリックで切替)"));
-        String renameTitle = ChatColor.translateAlternateColorCodes('&', plugin.getConfig().getString("gui.rename-mode-title", "&eリネームモード (クリックで名前変更)"));
-        
-        // Allow other titles for Admin view (e.g. "User's Homes")
-        boolean isMyGui = title.equals(normalTitle) || title.equals(deleteTitle) || title.equals(publicTitle) || title.equals(renameTitle) || title.contains("のホーム"); 
-        
-        if (!isMyGui) return;
 
         event.setCancelled(true); // Prevent taking items
 
@@ -440,52 +304,22 @@ public class HomeGUI implements Listener {
         }
 
         Player viewer = (Player) event.getWhoClicked();
-        
-        // Determine target (owner of homes)
-        // If title is default, target is viewer. If title is "X's Home", target is X.
-        OfflinePlayer target = viewer;
-        if (title.contains("のホーム")) {
-            String targetName = ChatColor.stripColor(title).replace("のホーム", "");
-            // Try to find offline player
-            target = Bukkit.getOfflinePlayer(targetName); 
-        }
-        
-        if (target == null) target = viewer; // Fallback
-        
-        boolean isOwner = viewer.getUniqueId().equals(target.getUniqueId());
-        boolean isAdmin = viewer.hasPermission("homes.admin") && !isOwner;
-        
+        boolean isOwner = session.isOwner();
+        boolean isAdmin = session.isAdmin();
         int slot = event.getSlot();
 
         // Handle Navigation Buttons (Prev: 45, Next: 53)
-        // Check if item name is "Next Page" or "Previous Page" (or matches config if we had it)
-        ItemStack clickedItem = event.getCurrentItem();
-        if (clickedItem.getType() == Material.ARROW && clickedItem.hasItemMeta() && clickedItem.getItemMeta().hasDisplayName()) {
-            String displayName = clickedItem.getItemMeta().getDisplayName();
-            if (displayName.contains("次のページ")) {
-                // Next Page
-                if (currentStartIndex.containsKey(viewer.getUniqueId())) {
-                    int currentStart = currentStartIndex.get(viewer.getUniqueId());
-                    int displayed = lastPageSize.getOrDefault(viewer.getUniqueId(), 0);
-                    
-                    pageHistory.get(viewer.getUniqueId()).push(currentStart);
-                    currentStartIndex.put(viewer.getUniqueId(), currentStart + displayed);
-                    
-                    soundManager.play(viewer, "gui-click");
-                    open(viewer, target);
-                }
-                return;
-            } else if (displayName.contains("前のページ")) {
-                // Previous Page
-                if (pageHistory.containsKey(viewer.getUniqueId()) && !pageHistory.get(viewer.getUniqueId()).isEmpty()) {
-                    int prevStart = pageHistory.get(viewer.getUniqueId()).pop();
-                    currentStartIndex.put(viewer.getUniqueId(), prevStart);
-                    
-                    soundManager.play(viewer, "gui-click");
-                    open(viewer, target);
-                }
-                return;
-            }
+        if (slot == session.getNextSlot()) {
+            session.nextPage();
+            soundManager.play(viewer, "gui-click");
+            update(viewer, session, session.getHomes());
+            return;
+        }
+        if (slot == session.getPrevSlot()) {
+            session.previousPage();
+            soundManager.play(viewer, "gui-click");
+            update(viewer, session, session.getHomes());
+            return;
         }
 
         // Create Home Button at Slot 0
@@ -498,174 +332,102 @@ public class HomeGUI implements Listener {
 
         // Rename Mode Button at Slot 1
         if (slot == 1 && isOwner) {
-            if (renameModePlayers.contains(viewer.getUniqueId())) {
-                renameModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            } else {
-                renameModePlayers.add(viewer.getUniqueId());
-                // Disable other modes
-                deleteModePlayers.remove(viewer.getUniqueId());
-                publicModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            }
-            open(viewer, target); 
+            session.toggleMode(GuiMode.RENAME);
+            soundManager.play(viewer, "gui-click");
+            update(viewer, session, session.getHomes());
             return;
         }
 
         // Delete Mode Button at Slot 8
-        if (slot == 8) {
-            if (deleteModePlayers.contains(viewer.getUniqueId())) {
-                deleteModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            } else {
-                deleteModePlayers.add(viewer.getUniqueId());
-                // Disable other modes
-                publicModePlayers.remove(viewer.getUniqueId());
-                renameModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            }
-            open(viewer, target); 
+        if (slot == 8 && (isOwner || isAdmin)) {
+            session.toggleMode(GuiMode.DELETE);
+            soundManager.play(viewer, "gui-click");
+            update(viewer, session, session.getHomes());
             return;
         }
 
         // Public Mode Button at Slot 7
         if (slot == 7 && isOwner) {
-            if (publicModePlayers.contains(viewer.getUniqueId())) {
-                publicModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            } else {
-                publicModePlayers.add(viewer.getUniqueId());
-                // Disable other modes
-                deleteModePlayers.remove(viewer.getUniqueId());
-                renameModePlayers.remove(viewer.getUniqueId());
-                soundManager.play(viewer, "gui-click");
-            }
-            open(viewer, target); 
+            session.toggleMode(GuiMode.PUBLIC);
+            soundManager.play(viewer, "gui-click");
+            update(viewer, session, session.getHomes());
             return;
         }
 
         // Home Items (Slot 9-53)
-        if (slot >= 9 && slot <= 53) {
-            if (clickedItem.hasItemMeta() && clickedItem.getItemMeta().hasDisplayName()) {
-                
-                // Re-calculate mapping to find home
-                // We need to simulate the filling logic to map slot -> index
-                // Or easier: we know the homes are sorted and we know our start index
-                // But holes (buttons) make it tricky.
-                // Re-running the loop is safest.
-                
-                Map<String, Location> homesMap = homeManager.getHomes(target.getUniqueId());
-                List<String> visibleHomes = getVisibleHomes(viewer, target, homesMap);
-                Collections.sort(visibleHomes);
-                
-                int startIndex = currentStartIndex.getOrDefault(viewer.getUniqueId(), 0);
-                boolean hasPrev = !pageHistory.getOrDefault(viewer.getUniqueId(), new Stack<>()).isEmpty();
-                int guiSize = visibleHomes.size() > 18 ? GUI_SIZE_LARGE : GUI_SIZE_SMALL;
-                
-                // Simulate loop to find which home matches this slot
-                int currentSlot = 9;
-                int endSlot = guiSize - 1;
-                int homeIndex = startIndex;
-                String matchedHome = null;
-                
-                for (int i = currentSlot; i <= endSlot; i++) {
-                    if (guiSize == GUI_SIZE_LARGE) {
-                        if (i == 45 && hasPrev) continue; // Skip Prev Button
-                        if (i == 53) {
-                            int remaining = visibleHomes.size() - homeIndex;
-                            if (remaining > 1) continue; // Skip Next Button
-                        }
-                    }
-                    
-                    if (i == slot) {
-                        // Found clicked slot
-                        if (homeIndex < visibleHomes.size()) {
-                            matchedHome = visibleHomes.get(homeIndex);
-                        }
-                        break;
-                    }
-                    
-                    homeIndex++;
+        HomeRecord home = session.homeAt(slot);
+        if (home != null) {
+            handleHomeClick(viewer, session, home);
+        }
+    }
+
+    private void handleHomeClick(Player viewer, HomeGUISession session, HomeRecord matchedHome) {
+        String homeName = matchedHome.name();
+        GuiMode mode = session.getMode();
+        boolean isOwner = session.isOwner();
+        
+        if (mode == GuiMode.DELETE) {
+            // Delete Mode Logic (existing)
+             new ConfirmGUI(plugin, homeManager, this, homeName, soundManager, session).open(viewer);
+             soundManager.play(viewer, "gui-click");
+        } else if (mode == GuiMode.RENAME && isOwner) {
+            // Rename Logic
+            if (inputListener != null) {
+                inputListener.startRename(viewer, homeName);
+            }
+        } else if (mode == GuiMode.PUBLIC && isOwner) {
+            // Public Mode Logic
+            boolean newState = !matchedHome.isPublic();
+            
+            // Economy check for making public (only when turning ON)
+            if (newState && economyManager != null && economyManager.hasEconomy()) {
+                 double cost = plugin.getSettings().costMakePublic;
+                 if (cost > 0 && !economyManager.hasMoney(viewer.getName(), cost)) {
+                    viewer.sendMessage(plugin.getMessage("insufficient-funds").replace("{cost}", economyManager.format(cost)));
+                    return;
+                }
+                if (cost > 0) {
+                    economyManager.withdraw(viewer.getName(), cost);
+                    viewer.sendMessage(plugin.getMessage("payment-success").replace("{cost}", economyManager.format(cost)));
                 }
+            }
+            
+            // The icon is swapped in place by onHomesChanged
+            homeManager.setPublic(session.getTargetId(), homeName, newState);
+            soundManager.play(viewer, "gui-click");
+        } else {
+            // Teleport Logic (existing)
+            // Resolve the world first, so nobody pays for a home in an unloaded world
+            Location loc = matchedHome.toLocation();
+            if (loc == null) {
+                viewer.closeInventory();
+                viewer.sendMessage(plugin.getMessage("world-not-loaded").replace("{world}", matchedHome.worldName()));
+                return;
+            }
 
-                if (matchedHome != null) {
-                    String homeName = matchedHome;
-                    
-                    if (deleteModePlayers.contains(viewer.getUniqueId())) {
-                        // Delete Mode Logic (existing)
-                         new ConfirmGUI(plugin, homeManager, this, homeName, soundManager, target.getUniqueId()).open(viewer);
-                         soundManager.play(viewer, "gui-click");
-                    } else if (renameModePlayers.contains(viewer.getUniqueId()) && isOwner) {
-                        // Rename Logic
-                        if (inputListener != null) {
-                            inputListener.startRename(viewer, homeName);
-                        }
-                    } else if (publicModePlayers.contains(viewer.getUniqueId()) && isOwner) {
-                        // Public Mode Logic
-                        boolean isPublic = homeManager.isPublic(target.getUniqueId(), homeName);
-                        boolean newState = !isPublic;
-                        
-                        // Economy check for making public (only when turning ON)
-                        if (newState && economyManager != null && economyManager.hasEconomy()) {
-                             double cost = plugin.getConfig().getDouble("economy.cost.make-public", 0);
-                             if (cost > 0 && !economyManager.hasMoney(viewer.getName(), cost)) {
-                                viewer.sendMessage(plugin.getMessage("insufficient-funds").replace("{cost}", economyManager.format(cost)));
-                                return;
-                            }
-                            if (cost > 0) {
-                                economyManager.withdraw(viewer.getName(), cost);
-                                viewer.sendMessage(plugin.getMessage("payment-success").replace("{cost}", economyManager.format(cost)));
-                            }
-                        }
-                        
-                        homeManager.setPublic(target.getUniqueId(), homeName, newState);
-                        soundManager.play(viewer, "gui-click");
-                        
-                        // Re-open to update icon
-                        open(viewer, target);
-                    } else {
-                        // Teleport Logic (existing)
-                        // Economy Check for TP
-                         if (economyManager != null && economyManager.hasEconomy()) {
-                             double cost = plugin.getConfig().getDouble("economy.cost.teleport", 0);
-                             if (cost > 0 && !economyManager.hasMoney(viewer.getName(), cost)) {
-                                viewer.sendMessage(plugin.getMessage("insufficient-funds").replace("{cost}", economyManager.format(cost)));
-                                return;
-                            }
-                            if (cost > 0) {
-                                economyManager.withdraw(viewer.getName(), cost);
-                                viewer.sendMessage(plugin.getMessage("payment-success").replace("{cost}", economyManager.format(cost)));
-                            }
-                        }
-                        
-                        viewer.closeInventory();
-                        Location loc = homeManager.getHome(target.getUniqueId(), homeName);
-                        teleportManager.teleport(viewer, loc);
-                    }
+            // Economy Check for TP
+             if (economyManager != null && economyManager.hasEconomy()) {
+                 double cost = plugin.getSettings().costTeleport;
+                 if (cost > 0 && !economyManager.hasMoney(viewer.getName(), cost)) {
+                    viewer.sendMessage(plugin.getMessage("insufficient-funds").replace("{cost}", economyManager.format(cost)));
+                    return;
+                }
+                if (cost > 0) {
+                    economyManager.withdraw(viewer.getName(), cost);
+                    viewer.sendMessage(plugin.getMessage("payment-success").replace("{cost}", economyManager.format(cost)));
                 }
             }
+            
+            viewer.closeInventory();
+            teleportManager.teleport(viewer, loc);
         }
     }
     
     @EventHandler
     public void onDrag(InventoryDragEvent event) {
-        String title = event.getView().getTitle();
-        if (title.contains("ホーム") || title.contains("削除") || title.contains("公開") || title.contains("リネーム")) {
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (holder instanceof HomeGUISession || holder instanceof ConfirmGUI) {
             event.setCancelled(true);
         }
     }
-
-    @EventHandler
-    public void onClose(InventoryCloseEvent event) {
-        if (event.getReason() != InventoryCloseEvent.Reason.OPEN_NEW) {
-            deleteModePlayers.remove(event.getPlayer().getUniqueId());
-            publicModePlayers.remove(event.getPlayer().getUniqueId());
-            renameModePlayers.remove(event.getPlayer().getUniqueId());
-            
-            // Clear pagination data
-            currentStartIndex.remove(event.getPlayer().getUniqueId());
-            pageHistory.remove(event.getPlayer().getUniqueId());
-            lastPageSize.remove(event.getPlayer().getUniqueId());
-        }
-    }
 }
@@ -0,0 +1,177 @@
+package com.example.homes.gui;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.PlayerHomes;
+
+/**
+ * State of one open home GUI, attached to its inventory as the holder.
+ * Clicks find it with an instanceof check on the top inventory, so there is no
+ * title matching and nothing per-player to clean up: it goes away with the inventory.
+ */
+public class HomeGUISession implements InventoryHolder {
+
+    public static final int NO_SLOT = -1;
+
+    private final UUID viewerId;
+    private final UUID targetId;
+    private final String targetName;
+    private final boolean owner;
+    private final boolean admin;
+
+    private GuiMode mode = GuiMode.TELEPORT;
+
+    // Pagination: index of the first home on this page, and the start of every page before it
+    private int startIndex;
+    private final Deque<Integer> pageHistory = new ArrayDeque<>();
+    private int pageSize;
+    private int prevSlot = NO_SLOT;
+    private int nextSlot = NO_SLOT;
+
+    // Snapshot the pages are computed from, replaced only when the homes actually change
+    private PlayerHomes homes;
+    private List<HomeRecord> visibleHomes;
+
+    // What each slot shows, filled on render. shown holds the cached template last put
+    // in each slot, so an update only touches slots whose template changed.
+    private HomeRecord[] slotHomes = new HomeRecord[0];
+    private ItemStack[] shown = new ItemStack[0];
+    private Inventory inventory;
+
+    public HomeGUISession(UUID viewerId, UUID targetId, String targetName, boolean owner, boolean admin) {
+        this.viewerId = viewerId;
+        this.targetId = targetId;
+        this.targetName = targetName;
+        this.owner = owner;
+        this.admin = admin;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+        this.shown = new ItemStack[inventory.getSize()];
+    }
+
+    PlayerHomes getHomes() {
+        return homes;
+    }
+
+    List<HomeRecord> getVisibleHomes() {
+        return visibleHomes;
+    }
+
+    void setHomes(PlayerHomes homes, List<HomeRecord> visibleHomes) {
+        this.homes = homes;
+        this.visibleHomes = visibleHomes;
+    }
+
+    ItemStack[] getShown() {
+        return shown;
+    }
+
+    void setShown(ItemStack[] shown) {
+        this.shown = shown;
+    }
+
+    // Forget the previous layout before laying out the slots again
+    void clearSlots(int size) {
+        this.slotHomes = new HomeRecord[size];
+        this.prevSlot = NO_SLOT;
+        this.nextSlot = NO_SLOT;
+    }
+
+    public UUID getViewerId() {
+        return viewerId;
+    }
+
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public boolean isOwner() {
+        return owner;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public GuiMode getMode() {
+        return mode;
+    }
+
+    // Clicking the button of the active mode switches back to teleport mode
+    void toggleMode(GuiMode clicked) {
+        mode = mode == clicked ? GuiMode.TELEPORT : clicked;
+    }
+
+    int getStartIndex() {
+        return startIndex;
+    }
+
+    boolean hasPreviousPage() {
+        return !pageHistory.isEmpty();
+    }
+
+    void nextPage() {
+        pageHistory.push(startIndex);
+        startIndex += pageSize;
+    }
+
+    void previousPage() {
+        if (!pageHistory.isEmpty()) {
+            startIndex = pageHistory.pop();
+        }
+    }
+
+    // Back to the first page, e.g. when homes were deleted and this page no longer exists
+    void resetPage() {
+        startIndex = 0;
+        pageHistory.clear();
+    }
+
+    void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    int getPrevSlot() {
+        return prevSlot;
+    }
+
+    void setPrevSlot(int prevSlot) {
+        this.prevSlot = prevSlot;
+    }
+
+    int getNextSlot() {
+        return nextSlot;
+    }
+
+    void setNextSlot(int nextSlot) {
+        this.nextSlot = nextSlot;
+    }
+
+    void setHome(int slot, HomeRecord home) {
+        slotHomes[slot] = home;
+    }
+
+    // The home shown in slot, or null for buttons and empty slots
+    public HomeRecord homeAt(int slot) {
+        return slot >= 0 && slot < slotHomes.length ? slotHomes[slot] : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.homes.importer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.example.homes.database.DatabaseManager;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.HomeWriteQueue;
+import com.example.homes.database.PlayerHomes;
+
+/**
+ * Collects imported homes and writes them to player_homes in batches, one transaction per batch.
+ * A later home with the same owner and name replaces the pending one, rows that are already stored
+ * as they are get skipped, and homes that move keep their public flag.
+ * Not thread-safe: one writer per import, used from the thread that collects the parsed results.
+ */
+public class BatchHomeWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private record Key(UUID uuid, String name) {
+    }
+
+    private final DatabaseManager database;
+    private final int batchSize;
+    private final Map<Key, HomeRecord> batch = new LinkedHashMap<>();
+    private final Set<UUID> touched = new HashSet<>();
+    private int written;
+    private int unchanged;
+    private int batches;
+
+    public BatchHomeWriter(DatabaseManager database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchHomeWriter(DatabaseManager database, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    public void add(ImportedHome imported) {
+        batch.put(new Key(imported.uuid(), imported.home().name()), imported.home());
+    }
+
+    public boolean isFull() {
+        return batch.size() >= batchSize;
+    }
+
+    public void flush() {
+        if (batch.isEmpty()) return;
+        List<HomeWriteQueue.Write> writes = changedOnly();
+        if (!writes.isEmpty()) {
+            // Same batched, transactional path the write-behind queue uses
+            if (!database.writeBatch(writes)) {
+                database.writeIndividually(writes);
+            }
+        }
+        batch.clear();
+        batches++;
+    }
+
+    // Drop rows that are already stored as they are; keep the public flag of homes that move
+    private List<HomeWriteQueue.Write> changedOnly() {
+        Set<UUID> uuids = new HashSet<>();
+        for (Key key : batch.keySet()) {
+            uuids.add(key.uuid());
+        }
+        Map<UUID, PlayerHomes> stored = database.loadHomes(uuids);
+
+        List<HomeWriteQueue.Write> writes = new ArrayList<>(batch.size());
+        for (Map.Entry<Key, HomeRecord> entry : batch.entrySet()) {
+            UUID uuid = entry.getKey().uuid();
+            HomeRecord home = entry.getValue();
+            PlayerHomes homes = stored.get(uuid);
+            HomeRecord current = homes == null ? null : homes.get(home.name());
+            if (current != null && current.withPublic(false).equals(home.withPublic(false))) {
+                unchanged++;
+                continue;
+            }
+            if (current != null && current.isPublic()) {
+                home = home.withPublic(true);
+            }
+            writes.add(HomeWriteQueue.Write.upsert(uuid, home));
+            touched.add(uuid);
+            written++;
+        }
+        return writes;
+    }
+
+    // Players whose rows were written, for refreshing cached homes afterwards
+    public Set<UUID> getTouched() {
+        return touched;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+}
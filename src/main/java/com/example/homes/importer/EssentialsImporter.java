@@ -0,0 +1,133 @@
+package com.example.homes.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.WorldRegistry;
+
+/**
+ * EssentialsX userdata: one {@code <uuid>.yml} per player with a {@code homes} section.
+ * <pre>
+ * homes:
+ *   base:
+ *     world: 5d7a...      (world UUID on current EssentialsX, the name on old versions)
+ *     world-name: world   (current EssentialsX only)
+ *     x: 12.5
+ *     ...
+ * </pre>
+ */
+public class EssentialsImporter implements HomeImporter {
+
+    private static final int MAX_NAME_LENGTH = 64; // home_name column
+
+    // World UUID -> name, taken on the main thread in prepare()
+    private volatile Map<String, String> worldNames = Collections.emptyMap();
+
+    @Override
+    public String getName() {
+        return "essentials";
+    }
+
+    @Override
+    public String getDefaultSource() {
+        return "plugins/Essentials/userdata";
+    }
+
+    @Override
+    public void prepare(HomesPlugin plugin) {
+        Map<String, String> names = new HashMap<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            names.put(world.getUID().toString(), world.getName());
+        }
+        worldNames = names;
+    }
+
+    @Override
+    public List<Path> listSources(Path source) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(source)) {
+            files.add(source);
+            return files;
+        }
+        // Streamed listing, userdata can hold tens of thousands of files
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(source, "*.yml")) {
+            for (Path file : dir) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public ParsedFile read(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(fileName.substring(0, fileName.length() - ".yml".length()));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            return new ParsedFile(Collections.emptyList(), 0); // Not a player file (e.g. an offline-mode name)
+        }
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            yaml.load(reader);
+        } catch (InvalidConfigurationException e) {
+            return new ParsedFile(Collections.emptyList(), 1);
+        }
+
+        ConfigurationSection homes = yaml.getConfigurationSection("homes");
+        if (homes == null) return new ParsedFile(Collections.emptyList(), 0);
+
+        List<ImportedHome> parsed = new ArrayList<>();
+        int failed = 0;
+        for (String name : homes.getKeys(false)) {
+            ConfigurationSection home = homes.getConfigurationSection(name);
+            String world = home == null ? null : worldName(home);
+            if (world == null || name.length() > MAX_NAME_LENGTH
+                    || !home.isSet("x") || !home.isSet("y") || !home.isSet("z")) {
+                failed++;
+                continue;
+            }
+            parsed.add(new ImportedHome(uuid, new HomeRecord(name, WorldRegistry.idOf(world),
+                    home.getDouble("x"), home.getDouble("y"), home.getDouble("z"),
+                    (float) home.getDouble("yaw"), (float) home.getDouble("pitch"), false)));
+        }
+        return new ParsedFile(parsed, failed);
+    }
+
+    private String worldName(ConfigurationSection home) {
+        String name = home.getString("world-name");
+        if (name != null && !name.isEmpty()) return name;
+        String world = home.getString("world");
+        if (world == null || world.isEmpty()) return null;
+        // A UUID of a world that isn't loaded here can't be resolved
+        return worldNames.getOrDefault(world, isUuid(world) ? null : world);
+    }
+
+    private static boolean isUuid(String value) {
+        if (value.length() != 36) return false;
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.homes.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.manager.HomeManager;
+
+/**
+ * Runs a {@link HomeImporter}: source files are parsed on a bounded pool, a single collector thread
+ * takes the results as they finish and feeds one {@link BatchHomeWriter}, so parsing scales with the
+ * cores while the database sees one transaction at a time.
+ */
+public class HomeImportManager {
+
+    private static final long BOSSBAR_INTERVAL_MILLIS = 500L;
+
+    private final HomesPlugin plugin;
+    private final HomeManager homeManager;
+    private final Map<String, HomeImporter> importers = new LinkedHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Counters of one run, only touched by the collector thread
+    private static final class ImportRun {
+        int files;
+        int filesDone;
+        int filesFailed;
+        int homes;
+        int failed;
+    }
+
+    public HomeImportManager(HomesPlugin plugin, HomeManager homeManager) {
+        this.plugin = plugin;
+        this.homeManager = homeManager;
+        register(new EssentialsImporter());
+    }
+
+    public void register(HomeImporter importer) {
+        importers.put(importer.getName(), importer);
+    }
+
+    public HomeImporter getImporter(String name) {
+        return importers.get(name.toLowerCase());
+    }
+
+    public Collection<HomeImporter> getImporters() {
+        return importers.values();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public void startImport(CommandSender sender, HomeImporter importer, File source) {
+        if (!source.exists()) {
+            sender.sendMessage(ChatColor.RED + "ファイルが見つかりません: " + source.getAbsolutePath());
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "移行はすでに実行中です。");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GREEN + importer.getName() + " からの移行を開始します... バックグラウンドで処理されます。");
+        BossBar bossBar = Bukkit.createBossBar(ChatColor.YELLOW + "ホーム移行中 (" + importer.getName() + ")...", BarColor.YELLOW, BarStyle.SOLID);
+        if (sender instanceof Player player) {
+            bossBar.addPlayer(player);
+        }
+        importer.prepare(plugin);
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                BatchHomeWriter writer = new BatchHomeWriter(homeManager.getDatabaseManager());
+                ImportRun run = runImport(importer, source.toPath(), writer, bossBar, start);
+                long elapsed = Math.max(1L, System.currentTimeMillis() - start);
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    bossBar.removeAll();
+                    // Imported rows went straight to the database, reload what's cached
+                    homeManager.reload();
+                    sender.sendMessage(ChatColor.GREEN + "移行が完了しました！ (" + importer.getName() + ")");
+                    sender.sendMessage(ChatColor.GREEN + "成功: " + writer.getWritten() + ", 変更なし: " + writer.getUnchanged()
+                            + ", 失敗/スキップ: " + run.failed);
+                    sender.sendMessage(ChatColor.GRAY + String.format("%d ファイル (読み込み失敗 %d) / %.1f 秒 / %.0f 件/秒",
+                            run.filesDone, run.filesFailed, elapsed / 1000.0, run.homes * 1000.0 / elapsed));
+                    plugin.getLogger().info("Import from " + importer.getName() + " finished. Files: " + run.filesDone
+                            + " (" + run.filesFailed + " unreadable), Homes: " + run.homes + ", Written: " + writer.getWritten()
+                            + ", Unchanged: " + writer.getUnchanged() + ", Failed: " + run.failed
+                            + ", Batches: " + writer.getBatches() + " in " + elapsed + "ms");
+                });
+            } catch (IOException | InterruptedException e) {
+                plugin.getLogger().warning("Import from " + importer.getName() + " failed: " + e);
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    bossBar.removeAll();
+                    sender.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage());
+                });
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private ImportRun runImport(HomeImporter importer, Path source, BatchHomeWriter writer, BossBar bossBar, long start)
+            throws IOException, InterruptedException {
+        ImportRun run = new ImportRun();
+        List<Path> files = importer.listSources(source);
+        run.files = files.size();
+
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "HomesPlugin-Import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<ParsedFile> completion = new ExecutorCompletionService<>(pool);
+        // Files submitted but not collected yet. Bounded so parsed homes never pile up in memory.
+        int maxInFlight = workers * 4;
+        int inFlight = 0;
+        int next = 0;
+        long lastBar = 0;
+
+        try {
+            while (next < files.size() || inFlight > 0) {
+                while (next < files.size() && inFlight < maxInFlight) {
+                    Path file = files.get(next++);
+                    completion.submit(() -> importer.read(file));
+                    inFlight++;
+                }
+
+                ParsedFile parsed;
+                try {
+                    parsed = completion.take().get();
+                } catch (ExecutionException e) {
+                    // One broken file shouldn't stop the rest
+                    parsed = null;
+                    run.filesFailed++;
+                    plugin.getLogger().warning("Failed to read a file for import: " + e.getCause());
+                }
+                inFlight--;
+                run.filesDone++;
+
+                if (parsed != null) {
+                    run.failed += parsed.failed();
+                    for (ImportedHome home : parsed.homes()) {
+                        run.homes++;
+                        writer.add(home);
+                        if (writer.isFull()) {
+                            writer.flush();
+                        }
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastBar >= BOSSBAR_INTERVAL_MILLIS) {
+                    lastBar = now;
+                    updateBar(bossBar, importer, run, now - start);
+                }
+            }
+            writer.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return run;
+    }
+
+    private void updateBar(BossBar bossBar, HomeImporter importer, ImportRun run, long elapsed) {
+        double progress = run.files == 0 ? 1.0 : Math.min(1.0, run.filesDone / (double) run.files);
+        String title = ChatColor.YELLOW + "ホーム移行中 (" + importer.getName() + ")... " + (int) (progress * 100) + "%"
+                + String.format(" (%d/%d ファイル, %.0f 件/秒)", run.filesDone, run.files, run.homes * 1000.0 / Math.max(1L, elapsed));
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            bossBar.setProgress(progress);
+            bossBar.setTitle(title);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.homes.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.example.homes.HomesPlugin;
+
+/**
+ * Reader for one foreign home format. {@link HomeImportManager} lists the source files,
+ * parses them in parallel with {@link #read(Path)} and writes the results in batches.
+ */
+public interface HomeImporter {
+
+    // Used as /homes import <name>
+    String getName();
+
+    // Path relative to the server directory used when none is given
+    String getDefaultSource();
+
+    // Main thread, before the import starts: snapshot anything read() needs from the Bukkit API
+    default void prepare(HomesPlugin plugin) {
+    }
+
+    // Async: the files to read under source (a directory or a single file)
+    List<Path> listSources(Path source) throws IOException;
+
+    // Worker thread: no Bukkit API, may run for many files at once
+    ParsedFile read(Path file) throws IOException;
+}
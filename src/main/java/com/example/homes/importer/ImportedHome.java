@@ -0,0 +1,9 @@
+package com.example.homes.importer;
+
+import java.util.UUID;
+
+import com.example.homes.database.HomeRecord;
+
+// One home read from another plugin's data, not written yet
+public record ImportedHome(UUID uuid, HomeRecord home) {
+}
@@ -0,0 +1,7 @@
+package com.example.homes.importer;
+
+import java.util.List;
+
+// What a HomeImporter got out of one source file; failed counts entries it had to drop
+public record ParsedFile(List<ImportedHome> homes, int failed) {
+}
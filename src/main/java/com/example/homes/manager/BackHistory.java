@@ -0,0 +1,204 @@
+package com.example.homes.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import com.example.homes.database.WorldRegistry;
+
+/**
+ * /back history: the last few locations a player teleported away from or died at, newest first.
+ * Each player gets a fixed-size ring of primitive slots (coordinates, rotation, interned world id),
+ * so an entry costs a few dozen bytes and the oldest one is simply overwritten.
+ * Only online players are kept here; on quit the history is stored with the player settings.
+ */
+public class BackHistory {
+
+    private static final class Ring {
+        final double[] pos;  // x, y, z per slot
+        final float[] rot;   // yaw, pitch per slot
+        final int[] worlds;
+        int head;            // next slot to write
+        int count;
+
+        Ring(int capacity) {
+            pos = new double[capacity * 3];
+            rot = new float[capacity * 2];
+            worlds = new int[capacity];
+        }
+
+        int capacity() {
+            return worlds.length;
+        }
+
+        void push(int world, double x, double y, double z, float yaw, float pitch) {
+            worlds[head] = world;
+            pos[head * 3] = x;
+            pos[head * 3 + 1] = y;
+            pos[head * 3 + 2] = z;
+            rot[head * 2] = yaw;
+            rot[head * 2 + 1] = pitch;
+            head = (head + 1) % capacity();
+            if (count < capacity()) count++;
+        }
+
+        // Slot of the i-th newest entry
+        int slot(int i) {
+            return Math.floorMod(head - 1 - i, capacity());
+        }
+
+        // Drop the i-th newest entry, moving the newer ones down a slot
+        void removeAt(int i) {
+            for (int j = i; j > 0; j--) {
+                int from = slot(j - 1);
+                int to = slot(j);
+                worlds[to] = worlds[from];
+                System.arraycopy(pos, from * 3, pos, to * 3, 3);
+                System.arraycopy(rot, from * 2, rot, to * 2, 2);
+            }
+            head = slot(0);
+            count--;
+        }
+
+        // Copy the newest entries into a ring of another size, e.g. after the depth changed on reload
+        Ring resized(int capacity) {
+            Ring ring = new Ring(capacity);
+            for (int i = Math.min(count, capacity) - 1; i >= 0; i--) {
+                int s = slot(i);
+                ring.push(worlds[s], pos[s * 3], pos[s * 3 + 1], pos[s * 3 + 2], rot[s * 2], rot[s * 2 + 1]);
+            }
+            return ring;
+        }
+    }
+
+    private final Map<UUID, Ring> rings = new HashMap<>();
+
+    public void push(UUID uuid, Location loc, int depth) {
+        if (depth <= 0 || loc.getWorld() == null) return;
+        Ring ring = rings.get(uuid);
+        if (ring == null) {
+            ring = new Ring(depth);
+            rings.put(uuid, ring);
+        } else if (ring.capacity() != depth) {
+            ring = ring.resized(depth);
+            rings.put(uuid, ring);
+        }
+        ring.push(WorldRegistry.idOf(loc.getWorld().getName()), loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), loc.getPitch());
+    }
+
+    // Newest entry whose world is loaded, or null. It stays in the history until remove(uuid, loc),
+    // so a cancelled /back can be retried; entries in unloaded worlds are dropped on the way.
+    public Location peek(UUID uuid) {
+        Ring ring = rings.get(uuid);
+        while (ring != null && ring.count > 0) {
+            int s = ring.slot(0);
+            World world = Bukkit.getWorld(WorldRegistry.nameOf(ring.worlds[s]));
+            if (world != null) {
+                return new Location(world, ring.pos[s * 3], ring.pos[s * 3 + 1], ring.pos[s * 3 + 2], ring.rot[s * 2], ring.rot[s * 2 + 1]);
+            }
+            ring.removeAt(0);
+        }
+        rings.remove(uuid);
+        return null;
+    }
+
+    // Drop the newest entry at exactly this location, e.g. once /back has arrived there.
+    // Searched rather than taken from the top, a death during the warmup may have pushed another entry.
+    public void remove(UUID uuid, Location loc) {
+        Ring ring = rings.get(uuid);
+        if (ring == null || loc.getWorld() == null) return;
+        int world = WorldRegistry.idOf(loc.getWorld().getName());
+        for (int i = 0; i < ring.count; i++) {
+            int s = ring.slot(i);
+            if (ring.worlds[s] == world
+                    && ring.pos[s * 3] == loc.getX() && ring.pos[s * 3 + 1] == loc.getY() && ring.pos[s * 3 + 2] == loc.getZ()
+                    && ring.rot[s * 2] == loc.getYaw() && ring.rot[s * 2 + 1] == loc.getPitch()) {
+                ring.removeAt(i);
+                if (ring.count == 0) rings.remove(uuid);
+                return;
+            }
+        }
+    }
+
+    // Newest first: count, then world name, x, y, z, yaw, pitch per entry.
+    // World names rather than ids, ids are only valid for this server process.
+    public byte[] export(UUID uuid) {
+        Ring ring = rings.get(uuid);
+        if (ring == null || ring.count == 0) return null;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + ring.count * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ring.count);
+            for (int i = 0; i < ring.count; i++) {
+                int s = ring.slot(i);
+                out.writeUTF(WorldRegistry.nameOf(ring.worlds[s]));
+                out.writeDouble(ring.pos[s * 3]);
+                out.writeDouble(ring.pos[s * 3 + 1]);
+                out.writeDouble(ring.pos[s * 3 + 2]);
+                out.writeFloat(ring.rot[s * 2]);
+                out.writeFloat(ring.rot[s * 2 + 1]);
+            }
+        } catch (IOException e) {
+            return null; // Can't happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    // Replace the player's history with a stored one, keeping at most depth entries
+    public void load(UUID uuid, byte[] data, int depth) {
+        rings.remove(uuid);
+        if (data == null || depth <= 0) return;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int count = Math.min(in.readUnsignedByte(), depth);
+            int[] worlds = new int[count];
+            double[] pos = new double[count * 3];
+            float[] rot = new float[count * 2];
+            for (int i = 0; i < count; i++) {
+                worlds[i] = WorldRegistry.idOf(in.readUTF());
+                pos[i * 3] = in.readDouble();
+                pos[i * 3 + 1] = in.readDouble();
+                pos[i * 3 + 2] = in.readDouble();
+                rot[i * 2] = in.readFloat();
+                rot[i * 2 + 1] = in.readFloat();
+            }
+            if (count == 0) return;
+            // Push oldest first so the newest ends up at the head
+            Ring ring = new Ring(depth);
+            for (int i = count - 1; i >= 0; i--) {
+                ring.push(worlds[i], pos[i * 3], pos[i * 3 + 1], pos[i * 3 + 2], rot[i * 2], rot[i * 2 + 1]);
+            }
+            rings.put(uuid, ring);
+        } catch (IOException e) {
+            // Truncated or foreign data, start with an empty history
+        }
+    }
+
+    public int size(UUID uuid) {
+        Ring ring = rings.get(uuid);
+        return ring == null ? 0 : ring.count;
+    }
+
+    public void remove(UUID uuid) {
+        rings.remove(uuid);
+    }
+
+    public int getPlayers() {
+        return rings.size();
+    }
+
+    public int getEntries() {
+        int total = 0;
+        for (Ring ring : rings.values()) {
+            total += ring.count;
+        }
+        return total;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.homes.manager;
 
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -15,13 +19,37 @@ public class DataListener implements Listener {
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
-    @EventHandler
+    // MONITOR so we only read for logins every other plugin has let through
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            homeManager.discardPreloaded(event.getUniqueId());
+            return;
+        }
+        homeManager.preloadHomes(event.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
     public void onJoin(PlayerJoinEvent event) {
-        homeManager.loadHomes(event.getPlayer().getUniqueId());
+        homeManager.promotePreloaded(event.getPlayer().getUniqueId());
+        homeManager.getPublicIndex().updateName(event.getPlayer().getUniqueId(), event.getPlayer().getName());
     }
 
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
         homeManager.unloadHomes(event.getPlayer().getUniqueId());
     }
+
+    // Fired by Player#updateCommands, which the server calls on every permission recalculation
+    // (op/deop, attachments, permission plugins pushing changes)
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPermissionsRecalculated(PlayerCommandSendEvent event) {
+        homeManager.invalidateLimit(event.getPlayer().getUniqueId());
+    }
+
+    // Per-world permissions
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        homeManager.invalidateLimit(event.getPlayer().getUniqueId());
+    }
 }
@@ -19,7 +19,7 @@ public class DeathListener implements Listener {
 
     @EventHandler
     public void onPlayerDeath(PlayerDeathEvent event) {
-        if (plugin.getConfig().getBoolean("settings.back.save-death-location", true)) {
+        if (plugin.getSettings().backSaveDeathLocation) {
             // Save death location to /back
             tpaManager.saveLastLocation(event.getEntity());
             // Optional: send message?
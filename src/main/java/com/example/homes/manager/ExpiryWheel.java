@@ -0,0 +1,92 @@
+package com.example.homes.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import com.example.homes.HomesPlugin;
+
+/**
+ * Hashed timing wheel with one-second slots. Everything scheduled here expires from a single task
+ * that only runs while the wheel holds entries, so the scheduler load doesn't grow with the number
+ * of timeouts. Entries can't be cancelled; the expiry callback is expected to check whether the
+ * entry still matters (e.g. the request was already accepted) and ignore it otherwise.
+ */
+public class ExpiryWheel<T> {
+
+    private static final int SLOTS = 64;
+
+    private static final class Timeout<T> {
+        final T item;
+        int rounds; // full turns of the wheel still to wait
+
+        Timeout(T item, int rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+
+    private final HomesPlugin plugin;
+    private final Consumer<T> onExpire;
+    @SuppressWarnings("unchecked")
+    private final List<Timeout<T>>[] wheel = new List[SLOTS];
+    private int cursor;
+    private int size;
+    private BukkitTask task;
+
+    public ExpiryWheel(HomesPlugin plugin, Consumer<T> onExpire) {
+        this.plugin = plugin;
+        this.onExpire = onExpire;
+        for (int i = 0; i < SLOTS; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+    }
+
+    // Call onExpire(item) after about seconds (1s resolution). Main thread only.
+    public void schedule(T item, int seconds) {
+        int ticks = Math.max(1, seconds);
+        wheel[(cursor + ticks) % SLOTS].add(new Timeout<>(item, (ticks - 1) / SLOTS));
+        size++;
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::advance, 20L, 20L);
+        }
+    }
+
+    private void advance() {
+        cursor = (cursor + 1) % SLOTS;
+        List<Timeout<T>> bucket = wheel[cursor];
+        List<T> expired = null;
+
+        // Compact the bucket in place, keeping only entries that wait for another turn
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout<T> timeout = bucket.get(i);
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+            } else {
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(timeout.item);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+
+        if (expired != null) {
+            size -= expired.size();
+            for (T item : expired) {
+                onExpire.accept(item);
+            }
+        }
+
+        if (size == 0 && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.homes.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.database.DatabaseManager;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.HomeWriteQueue;
+import com.example.homes.database.WorldRegistry;
+
+/**
+ * Snapshot of player_homes to a gzip'd binary file and back (/homes export, /homes import-dump).
+ * Both directions stream row by row, so memory use doesn't depend on the number of homes.
+ * <pre>
+ * "HOMEDUMP" int version
+ * per row: byte 1, long uuid msb, long uuid lsb, UTF name, UTF world, double x y z, float yaw pitch, boolean public
+ * byte 0, long row count
+ * </pre>
+ */
+public class HomeDumpManager {
+
+    private static final byte[] MAGIC = "HOMEDUMP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int PAGE_SIZE = 5000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HomesPlugin plugin;
+    private final HomeManager homeManager;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public HomeDumpManager(HomesPlugin plugin, HomeManager homeManager) {
+        this.plugin = plugin;
+        this.homeManager = homeManager;
+    }
+
+    // Default export target: plugins/HomesPlugin/exports/homes-<time>.dump
+    public File defaultExportFile() {
+        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return new File(new File(plugin.getDataFolder(), "exports"), "homes-" + time + ".dump");
+    }
+
+    public void startExport(CommandSender sender, File file) {
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "エクスポート/復元はすでに実行中です。");
+            return;
+        }
+        sender.sendMessage(ChatColor.GREEN + "エクスポートを開始します... バックグラウンドで処理されます。");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                long rows = export(file.toPath());
+                long elapsed = System.currentTimeMillis() - start;
+                long size = file.length();
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    sender.sendMessage(ChatColor.GREEN + "エクスポートが完了しました: " + file.getPath());
+                    sender.sendMessage(ChatColor.GREEN + rows + " 件 / " + (size / 1024) + " KB / " + elapsed + "ms");
+                });
+                plugin.getLogger().info("Exported " + rows + " homes to " + file.getPath() + " (" + size + " bytes) in " + elapsed + "ms");
+            } catch (IOException | RuntimeException e) {
+                plugin.getLogger().warning("Home export failed: " + e);
+                plugin.getServer().getScheduler().runTask(plugin, () ->
+                        sender.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage()));
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    public void startRestore(CommandSender sender, File file) {
+        if (!file.exists()) {
+            sender.sendMessage(ChatColor.RED + "ファイルが見つかりません: " + file.getAbsolutePath());
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "エクスポート/復元はすでに実行中です。");
+            return;
+        }
+        sender.sendMessage(ChatColor.GREEN + "復元を開始します... バックグラウンドで処理されます。");
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            // Rows already committed when the dump turns out to be broken halfway
+            long[] committed = new long[1];
+            try {
+                long start = System.currentTimeMillis();
+                long rows = restore(file.toPath(), committed);
+                long elapsed = System.currentTimeMillis() - start;
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    // Restored rows went straight to the database, reload what's cached
+                    homeManager.reload();
+                    sender.sendMessage(ChatColor.GREEN + "復元が完了しました: " + rows + " 件 / " + elapsed + "ms");
+                });
+                plugin.getLogger().info("Restored " + rows + " homes from " + file.getPath() + " in " + elapsed + "ms");
+            } catch (IOException | RuntimeException e) {
+                long partial = committed[0];
+                plugin.getLogger().warning("Home restore failed after " + partial + " rows were written: " + e);
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    // The committed batches stay in the database, so the caches are stale either way
+                    if (partial > 0) homeManager.reload();
+                    sender.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage());
+                    sender.sendMessage(ChatColor.RED + "復元は途中で中断されました (" + partial + " 件は書き込み済み)");
+                });
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    // Written to a temporary file first, so a failed export never leaves a truncated dump under the real name
+    private long export(Path target) throws IOException {
+        // Include changes still waiting in the write-behind queue
+        homeManager.getWriteQueue().flush();
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "homes-", ".tmp");
+        DatabaseManager database = homeManager.getDatabaseManager();
+        long rows = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), BUFFER_SIZE))) {
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+
+                long[] count = new long[1];
+                IOException[] failure = new IOException[1];
+                // Stay on one table even if the schema migration switches over meanwhile
+                int schema = database.getSchemaVersion();
+                long lastId = 0;
+                while (true) {
+                    lastId = database.readHomesPage(schema, lastId, PAGE_SIZE, (uuid, home) -> {
+                        if (failure[0] != null) return;
+                        try {
+                            writeRow(out, uuid, home);
+                            count[0]++;
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    });
+                    if (failure[0] != null) throw failure[0];
+                    if (lastId < 0) break;
+                }
+                rows = count[0];
+                out.writeByte(0);
+                out.writeLong(rows);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return rows;
+    }
+
+    private static void writeRow(DataOutputStream out, UUID uuid, HomeRecord home) throws IOException {
+        out.writeByte(1);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeUTF(home.name());
+        out.writeUTF(home.worldName());
+        out.writeDouble(home.x());
+        out.writeDouble(home.y());
+        out.writeDouble(home.z());
+        out.writeFloat(home.yaw());
+        out.writeFloat(home.pitch());
+        out.writeBoolean(home.isPublic());
+    }
+
+    // Upserts every row of the dump, one transaction per batch; homes not in the dump are left alone.
+    // committed[0] counts the rows written so far, also when the dump fails partway.
+    private long restore(Path source, long[] committed) throws IOException {
+        DatabaseManager database = homeManager.getDatabaseManager();
+        PublicHomeIndex publicIndex = homeManager.getPublicIndex();
+        List<HomeWriteQueue.Write> batch = new ArrayList<>(BATCH_SIZE);
+        long rows = 0;
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(
+                     new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE), BUFFER_SIZE))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a home dump: " + source);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported dump version " + version);
+            }
+
+            while (in.readByte() == 1) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                String name = in.readUTF();
+                String world = in.readUTF();
+                HomeRecord home = new HomeRecord(name, WorldRegistry.idOf(world),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readFloat(), in.readFloat(), in.readBoolean());
+                batch.add(HomeWriteQueue.Write.upsert(uuid, home));
+                rows++;
+                if (batch.size() >= BATCH_SIZE) {
+                    committed[0] += writeBatch(database, publicIndex, batch);
+                }
+            }
+            committed[0] += writeBatch(database, publicIndex, batch);
+
+            long expected = in.readLong();
+            if (expected != rows) {
+                throw new IOException("Dump is incomplete: expected " + expected + " rows, read " + rows);
+            }
+        }
+        return rows;
+    }
+
+    private static int writeBatch(DatabaseManager database, PublicHomeIndex publicIndex, List<HomeWriteQueue.Write> batch) {
+        if (batch.isEmpty()) return 0;
+        // Same batched, transactional path the write-behind queue uses
+        if (!database.writeBatch(batch)) {
+            database.writeIndividually(batch);
+        }
+        // Only now, so the index never lists public homes from a batch that wasn't written.
+        // The upsert sets is_public to the dumped value either way
+        for (HomeWriteQueue.Write write : batch) {
+            publicIndex.setPublic(write.uuid, write.name, write.isPublic);
+        }
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+}
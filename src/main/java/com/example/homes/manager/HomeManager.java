@@ -1,27 +1,72 @@
 package com.example.homes.manager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import com.example.homes.HomesPlugin;
 import com.example.homes.database.DatabaseManager;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.HomeWriteQueue;
+import com.example.homes.database.PlayerData;
+import com.example.homes.database.PlayerHomes;
+import com.example.homes.database.PlayerSettings;
+import com.example.homes.database.SchemaMigration;
 
 public class HomeManager {
 
     private final HomesPlugin plugin;
     private DatabaseManager databaseManager;
-    
-    // Cache: UUID -> (HomeName -> Location)
-    private final Map<UUID, Map<String, Location>> homeCache = new ConcurrentHashMap<>();
-    
-    // Cache: UUID -> (HomeName -> Boolean) - Public Status
-    private final Map<UUID, Map<String, Boolean>> publicCache = new ConcurrentHashMap<>();
+    private HomeWriteQueue writeQueue;
+
+    // Cache: UUID -> all homes of that player (immutable, swapped on every change)
+    private final Map<UUID, PlayerHomes> homeCache = new ConcurrentHashMap<>();
+
+    // Offline players viewed via /vhome (bounded, expiring)
+    private OfflineHomeCache offlineCache;
+
+    // Owners of public homes, for /vhome completion
+    private PublicHomeIndex publicIndex;
+    private SchemaMigration schemaMigration;
+
+    // Resolved home limit per online player
+    private final Map<UUID, Integer> limitCache = new ConcurrentHashMap<>();
+    private static final String LIMIT_PERMISSION_PREFIX = "homes.limit.";
+
+    // Async reads currently in flight, by player
+    private final Map<UUID, CompletableFuture<PlayerHomes>> inflightLoads = new ConcurrentHashMap<>();
+
+    // Bumped by every home or settings write of an online player. A read only replaces the cached
+    // data if no write came in since it took its pending-write snapshot, see storeHomes.
+    private final Map<UUID, Long> writeVersions = new ConcurrentHashMap<>();
+
+    // Homes read during pre-login, waiting for PlayerJoinEvent
+    private final Map<UUID, PreloadedHomes> preloaded = new ConcurrentHashMap<>();
+    private static final long PRELOAD_TTL_MILLIS = 60_000L;
+
+    // Notified with every change applied to a player's homes, e.g. to update open GUIs
+    private final List<BiConsumer<UUID, UnaryOperator<PlayerHomes>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    private static final class PreloadedHomes {
+        final PlayerData data;
+        final long loadedAt;
+
+        PreloadedHomes(PlayerData data, long loadedAt) {
+            this.data = data;
+            this.loadedAt = loadedAt;
+        }
+    }
 
     public HomeManager(HomesPlugin plugin) {
         this.plugin = plugin;
@@ -30,167 +75,382 @@ public class HomeManager {
 
     private void setup() {
         this.databaseManager = new DatabaseManager(plugin);
+        this.writeQueue = new HomeWriteQueue(plugin, databaseManager);
+        this.writeQueue.start();
+
+        int offlineMax = plugin.getConfig().getInt("cache.offline.max-size", 500);
+        long offlineTtl = plugin.getConfig().getLong("cache.offline.ttl-seconds", 300L) * 1000L;
+        this.offlineCache = new OfflineHomeCache(offlineMax, offlineTtl);
+        // Expired entries are also dropped on lookup, this just keeps idle ones from piling up
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, offlineCache::sweep, 1200L, 1200L);
+
+        this.publicIndex = new PublicHomeIndex(plugin);
+        this.publicIndex.build(databaseManager);
+
+        this.schemaMigration = new SchemaMigration(plugin, databaseManager);
+        this.schemaMigration.resumeIfPending();
+    }
+
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    public HomeWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    public OfflineHomeCache getOfflineCache() {
+        return offlineCache;
+    }
+
+    public SchemaMigration getSchemaMigration() {
+        return schemaMigration;
+    }
+
+    public PublicHomeIndex getPublicIndex() {
+        return publicIndex;
     }
 
     public void close() {
+        // Drain pending writes before the pool goes away
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+        }
         if (databaseManager != null) {
             databaseManager.close();
         }
     }
 
+    // Writes queued while the player was offline must be visible to a read. Only this player's are
+    // replayed over the rows, flushing the whole queue here would make every login wait on other players' writes.
+    private PlayerHomes readHomes(UUID uuid) {
+        List<HomeWriteQueue.Write> pending = writeQueue.pendingFor(uuid);
+        return HomeWriteQueue.replay(databaseManager.loadHomes(uuid), pending);
+    }
+
+    private PlayerData readPlayer(UUID uuid) {
+        List<HomeWriteQueue.Write> pending = writeQueue.pendingFor(uuid);
+        return HomeWriteQueue.replay(databaseManager.loadPlayer(uuid), pending);
+    }
+
+    // Take before the pending-write snapshot of a read
+    private long writeVersion(UUID uuid) {
+        return writeVersions.computeIfAbsent(uuid, k -> 0L);
+    }
+
+    // Writes are queued before their cache update, and bump the version in between. So a write that
+    // missed the read's snapshot either changes the version before this check, or is applied on top of
+    // the stored result afterwards.
+    private boolean storeHomes(UUID uuid, PlayerHomes homes, long version) {
+        boolean[] stored = new boolean[1];
+        homeCache.compute(uuid, (k, current) -> {
+            if (writeVersions.getOrDefault(uuid, -1L) != version) return current;
+            stored[0] = true;
+            return homes;
+        });
+        return stored[0];
+    }
+
     // Load data asynchronously
     public void loadHomes(UUID uuid) {
         new BukkitRunnable() {
             @Override
             public void run() {
-                Map<String, Location> homes = databaseManager.getHomes(uuid);
-                homeCache.put(uuid, new ConcurrentHashMap<>(homes));
-                
-                // Bulk fetch public status to avoid N+1 queries
-                Map<String, Boolean> publicStatus = databaseManager.getHomePublicStatus(uuid);
-                publicCache.put(uuid, new ConcurrentHashMap<>(publicStatus));
+                while (true) {
+                    long version = writeVersion(uuid);
+                    PlayerHomes homes = readHomes(uuid);
+
+                    // Player may have left while we were reading
+                    if (plugin.getServer().getPlayer(uuid) == null) {
+                        writeVersions.remove(uuid);
+                        return;
+                    }
+                    // A write came in meanwhile: read again rather than put back older data
+                    if (storeHomes(uuid, homes, version)) return;
+                }
             }
         }.runTaskAsynchronously(plugin);
     }
 
+    // Rows changed behind the cache's back (e.g. by an import): reload online players, forget offline copies
+    public void refreshHomes(Collection<UUID> uuids) {
+        for (UUID uuid : uuids) {
+            offlineCache.invalidate(uuid);
+            if (plugin.getServer().getPlayer(uuid) != null) {
+                loadHomes(uuid);
+            }
+        }
+    }
+
+    // Join without preloaded data: homes and settings together, same single query as the preload
+    private void loadPlayer(UUID uuid) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long version = writeVersion(uuid);
+            PlayerData data = readPlayer(uuid);
+
+            // Settings change on the main thread, so check and apply both there
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                // Player may have left while we were reading
+                if (plugin.getServer().getPlayer(uuid) == null) {
+                    writeVersions.remove(uuid);
+                    return;
+                }
+                // A home or settings write (e.g. /tpatoggle) came in meanwhile, read again
+                if (!storeHomes(uuid, data.homes(), version)) {
+                    loadPlayer(uuid);
+                    return;
+                }
+                applySettings(uuid, data.settings());
+            });
+        });
+    }
+
+    // Called from AsyncPlayerPreLoginEvent. That thread is already async and waits for us,
+    // so the blocking read is fine here and the cache is warm before the player is in the world.
+    public void preloadHomes(UUID uuid) {
+        PlayerData data = readPlayer(uuid);
+
+        long now = System.currentTimeMillis();
+        // Logins denied after pre-login never reach PlayerJoinEvent, drop their leftovers here
+        preloaded.values().removeIf(entry -> now - entry.loadedAt > PRELOAD_TTL_MILLIS);
+        preloaded.put(uuid, new PreloadedHomes(data, now));
+    }
+
+    public void discardPreloaded(UUID uuid) {
+        preloaded.remove(uuid);
+    }
+
+    // Called on join: hand preloaded data over to the cache, or fall back to an async load
+    public void promotePreloaded(UUID uuid) {
+        // Online players are served by homeCache from now on
+        offlineCache.invalidate(uuid);
+        PreloadedHomes entry = preloaded.remove(uuid);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt > PRELOAD_TTL_MILLIS) {
+            loadPlayer(uuid);
+            return;
+        }
+        homeCache.put(uuid, entry.data.homes());
+        applySettings(uuid, entry.data.settings());
+    }
+
+    // Main thread only
+    private void applySettings(UUID uuid, PlayerSettings settings) {
+        if (plugin.getServer().getPlayer(uuid) == null) return;
+        TpaManager tpaManager = plugin.getTpaManager();
+        if (tpaManager != null) {
+            tpaManager.loadSettings(uuid, settings);
+        }
+    }
+
     // Unload data (Save not needed as we save on write, just clear cache)
     public void unloadHomes(UUID uuid) {
-        homeCache.remove(uuid);
-        publicCache.remove(uuid);
+        limitCache.remove(uuid);
+        writeVersions.remove(uuid);
+        PlayerHomes homes = homeCache.remove(uuid);
+        preloaded.remove(uuid);
+        // The cached copy already includes pending writes, so it can serve /vhome right away
+        if (homes != null) {
+            offlineCache.put(uuid, homes);
+        }
+    }
+
+    // Apply a change to every cache that holds this player
+    // Only players that are already cached; creating a partial entry would hide their other homes.
+    // Call after queueing the write, so a read running meanwhile can't put back data without it.
+    private void updateCaches(UUID uuid, UnaryOperator<PlayerHomes> change) {
+        writeVersions.computeIfPresent(uuid, (k, v) -> v + 1);
+        if (homeCache.computeIfPresent(uuid, (k, homes) -> change.apply(homes)) == null) {
+            offlineCache.update(uuid, change);
+        }
+        preloaded.remove(uuid);
+        for (BiConsumer<UUID, UnaryOperator<PlayerHomes>> listener : changeListeners) {
+            listener.accept(uuid, change);
+        }
+    }
+
+    public void addChangeListener(BiConsumer<UUID, UnaryOperator<PlayerHomes>> listener) {
+        changeListeners.add(listener);
     }
-    
+
     // Async set home
     public void setHome(Player player, String name, Location loc) {
         setHomeDirectly(player.getUniqueId(), name, loc);
     }
-    
+
     public void setHomeDirectly(UUID uuid, String name, Location loc) {
+        if (loc.getWorld() == null) {
+            plugin.getLogger().warning("Skipping home " + name + " for " + uuid + ": world is not loaded.");
+            return;
+        }
+
+        HomeRecord record = HomeRecord.of(name, loc, false); // Default false
+
+        // Queued write-behind, flushed in batches
+        writeQueue.enqueue(HomeWriteQueue.Write.upsert(uuid, record));
+
         // Update cache immediately for responsiveness
-        // Use ConcurrentHashMap for thread safety
-        homeCache.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(name, loc);
-        
-        // Save to DB asynchronously
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                databaseManager.setHome(uuid, name, loc, false); // Default false
-            }
-        }.runTaskAsynchronously(plugin);
+        updateCaches(uuid, homes -> homes.with(record));
+        publicIndex.removeHome(uuid, name);
     }
-    
+
     public void setPublic(UUID uuid, String name, boolean isPublic) {
-        publicCache.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(name, isPublic);
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                databaseManager.updatePublic(uuid, name, isPublic);
-            }
-        }.runTaskAsynchronously(plugin);
+        writeQueue.enqueue(HomeWriteQueue.Write.setPublic(uuid, name, isPublic));
+        updateCaches(uuid, homes -> homes.withPublic(name, isPublic));
+        publicIndex.setPublic(uuid, name, isPublic);
     }
-    
+
     public void renameHome(UUID uuid, String oldName, String newName) {
-        // Update Cache
-        if (homeCache.containsKey(uuid)) {
-            Map<String, Location> homes = homeCache.get(uuid);
-            if (homes.containsKey(oldName)) {
-                Location loc = homes.remove(oldName);
-                homes.put(newName, loc);
-            }
-        }
-        if (publicCache.containsKey(uuid)) {
-            Map<String, Boolean> status = publicCache.get(uuid);
-            if (status.containsKey(oldName)) {
-                Boolean isPublic = status.remove(oldName);
-                status.put(newName, isPublic);
-            }
-        }
-        
         // Update DB
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                databaseManager.renameHome(uuid, oldName, newName);
-            }
-        }.runTaskAsynchronously(plugin);
+        writeQueue.enqueue(HomeWriteQueue.Write.rename(uuid, oldName, newName));
+
+        // Update Cache
+        updateCaches(uuid, homes -> homes.renamed(oldName, newName));
+        publicIndex.renameHome(uuid, oldName, newName);
+    }
+
+    // Settings are kept by TpaManager; queued here so a login read running meanwhile notices the change
+    public void saveSettings(UUID uuid, PlayerSettings settings) {
+        writeQueue.enqueue(HomeWriteQueue.Write.settings(uuid, settings));
+        writeVersions.computeIfPresent(uuid, (k, v) -> v + 1);
     }
-    
+
+    // Cache only. Use isPublicAsync for players that may not be cached.
     public boolean isPublic(UUID uuid, String name) {
-        if (publicCache.containsKey(uuid) && publicCache.get(uuid).containsKey(name)) {
-            return publicCache.get(uuid).get(name);
-        }
-        return databaseManager.isPublic(uuid, name);
+        HomeRecord home = getHome(uuid, name);
+        return home != null && home.isPublic();
     }
-    
+
     // Async delete home
     public void deleteHome(UUID uuid, String name) {
-        // Update cache immediately
-        if (homeCache.containsKey(uuid)) {
-            homeCache.get(uuid).remove(name);
-        }
-        if (publicCache.containsKey(uuid)) {
-            publicCache.get(uuid).remove(name);
-        }
-        
         // Delete from DB asynchronously
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                databaseManager.deleteHome(uuid, name);
-            }
-        }.runTaskAsynchronously(plugin);
+        writeQueue.enqueue(HomeWriteQueue.Write.delete(uuid, name));
+
+        // Update cache immediately
+        updateCaches(uuid, homes -> homes.without(name));
+        publicIndex.removeHome(uuid, name);
     }
 
     public void deleteHome(Player player, String name) {
         deleteHome(player.getUniqueId(), name);
     }
 
-    // Get from cache (Fast)
-    public Location getHome(Player player, String name) {
+    // Get from cache (Fast). Never touches the database; null if not cached.
+    public HomeRecord getHome(Player player, String name) {
         return getHome(player.getUniqueId(), name);
     }
-    
-    public Location getHome(UUID uuid, String name) {
-        if (homeCache.containsKey(uuid)) {
-            return homeCache.get(uuid).get(name);
-        }
-        // Fallback to DB if not cached (e.g. startup/reload issues), but sync call warning
-        return databaseManager.getHome(uuid, name);
+
+    public HomeRecord getHome(UUID uuid, String name) {
+        PlayerHomes homes = homeCache.get(uuid);
+        return homes != null ? homes.get(name) : null;
     }
 
-    // Get from cache (Fast)
-    public Map<String, Location> getHomes(Player player) {
+    // Get from cache (Fast). Never touches the database; empty if not cached.
+    public PlayerHomes getHomes(Player player) {
         return getHomes(player.getUniqueId());
     }
-    
-    public Map<String, Location> getHomes(UUID uuid) {
-        Map<String, Location> homes = homeCache.get(uuid);
+
+    public PlayerHomes getHomes(UUID uuid) {
+        PlayerHomes homes = homeCache.get(uuid);
+        return homes != null ? homes : PlayerHomes.EMPTY;
+    }
+
+    // Async reads: cache hits complete immediately, misses are read on an async thread
+    // and the future is completed back on the main thread, so callbacks can use the Bukkit API.
+    public CompletableFuture<PlayerHomes> getHomesAsync(UUID uuid) {
+        PlayerHomes homes = homeCache.get(uuid);
+        if (homes == null) {
+            homes = offlineCache.get(uuid);
+        }
         if (homes != null) {
-            return new ConcurrentHashMap<>(homes);
+            return CompletableFuture.completedFuture(homes);
         }
-        // Fallback
-        return databaseManager.getHomes(uuid);
+        return loadAsync(uuid);
+    }
+
+    public CompletableFuture<HomeRecord> getHomeAsync(UUID uuid, String name) {
+        return getHomesAsync(uuid).thenApply(homes -> homes.get(name));
+    }
+
+    public CompletableFuture<Boolean> isPublicAsync(UUID uuid, String name) {
+        return getHomeAsync(uuid, name).thenApply(home -> home != null && home.isPublic());
+    }
+
+    // Concurrent misses for the same player share one query
+    private CompletableFuture<PlayerHomes> loadAsync(UUID uuid) {
+        return inflightLoads.computeIfAbsent(uuid, key -> {
+            CompletableFuture<PlayerHomes> future = new CompletableFuture<>();
+            long version = offlineCache.startLoad(uuid);
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                PlayerHomes homes;
+                try {
+                    homes = readHomes(uuid);
+                } catch (RuntimeException e) {
+                    inflightLoads.remove(uuid);
+                    offlineCache.finishLoad(uuid, null, version);
+                    plugin.getServer().getScheduler().runTask(plugin, () -> future.completeExceptionally(e));
+                    return;
+                }
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    inflightLoads.remove(uuid);
+                    // Online players are served by homeCache, don't cache them here
+                    boolean offline = plugin.getServer().getPlayer(uuid) == null;
+                    offlineCache.finishLoad(uuid, offline ? homes : null, version);
+                    future.complete(homes);
+                });
+            });
+            return future;
+        });
     }
 
     public boolean hasHome(Player player, String name) {
-        return getHomes(player).containsKey(name);
+        return getHomes(player).contains(name);
     }
 
+    // Limit per online player, resolved once from the effective permission set.
+    // Dropped on permission recalculation, world change, quit and reload (see DataListener).
     public int getMaxHomes(Player player) {
-        // Check permissions from 100 down to 1
-        // Note: OPs usually have all permissions, so they might match homes.limit.100 if we check loop first.
-        // So we should check specific OP config first if we want to control OP limit separately.
-        
+        return limitCache.computeIfAbsent(player.getUniqueId(), k -> resolveMaxHomes(player));
+    }
+
+    public void invalidateLimit(UUID uuid) {
+        limitCache.remove(uuid);
+    }
+
+    private int resolveMaxHomes(Player player) {
+        // OPs usually have all permissions, so the OP limit from config takes priority.
+        // A negative value means unlimited.
         if (player.isOp()) {
-            return plugin.getConfig().getInt("settings.op-home-limit", 100);
+            return opLimit();
         }
 
-        for (int i = 100; i >= 1; i--) {
-            if (player.hasPermission("homes.limit." + i)) {
-                return i;
+        // Highest homes.limit.<n> the player has, any n
+        int max = -1;
+        for (PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+            if (!info.getValue()) continue;
+            String permission = info.getPermission();
+            if (!permission.regionMatches(true, 0, LIMIT_PERMISSION_PREFIX, 0, LIMIT_PERMISSION_PREFIX.length())) continue;
+
+            String suffix = permission.substring(LIMIT_PERMISSION_PREFIX.length());
+            if (suffix.equals("*")) {
+                // Wildcard grant, same as OP
+                return opLimit();
             }
+            try {
+                max = Math.max(max, Integer.parseInt(suffix));
+            } catch (NumberFormatException e) {
+                // Not a limit node (e.g. homes.limit.vip), ignore
+            }
+        }
+        if (max >= 0) {
+            return max;
         }
         // Fallback to config default
-        return plugin.getConfig().getInt("settings.default-home-limit", 1);
+        return plugin.getSettings().defaultHomeLimit;
+    }
+
+    private int opLimit() {
+        int limit = plugin.getSettings().opHomeLimit;
+        return limit < 0 ? Integer.MAX_VALUE : limit;
     }
 
     public boolean canSetHome(Player player) {
@@ -198,25 +458,17 @@ public class HomeManager {
         int max = getMaxHomes(player);
         return current < max;
     }
-    
+
     // For reload command
     public void reload() {
-        // Reload DB config if needed, or just clear cache and reload online players
+        // Reload DB config if needed, or just re-fetch online players
         // Re-init DB connection might be complex, assuming config change requires restart for DB
-        // But for other settings, we can just clear cache and re-fetch for online players
-        homeCache.clear();
-        publicCache.clear();
+        // The old entries stay until the fresh ones replace them, so reads never see an empty cache
+        homeCache.keySet().removeIf(uuid -> plugin.getServer().getPlayer(uuid) == null);
+        offlineCache.clear();
+        limitCache.clear();
         for (Player p : plugin.getServer().getOnlinePlayers()) {
             loadHomes(p.getUniqueId());
         }
     }
-    
-    // Get list of names of players who have at least one public home (or any home? vhome checks public anyway)
-    // To be efficient, this should probably come from DB query or cache.
-    // For now, let's just return online players + cached offline players?
-    // Or query DB for "SELECT DISTINCT uuid FROM homes WHERE is_public = true"
-    // Let's implement a method in DatabaseManager to get players with public homes.
-    public List<String> getPlayersWithPublicHomes() {
-        return databaseManager.getPlayersWithPublicHomes();
-    }
 }
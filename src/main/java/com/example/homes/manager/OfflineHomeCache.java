@@ -0,0 +1,159 @@
+package com.example.homes.manager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import com.example.homes.database.PlayerHomes;
+
+/**
+ * Size-bounded, time-expiring cache of homes for players that are NOT online.
+ * Online players live in HomeManager's own cache; this one only serves /vhome and its GUI.
+ * Writes going through HomeManager either update the entry in place or invalidate it.
+ */
+public class OfflineHomeCache {
+
+    private static final class Entry {
+        final PlayerHomes homes;
+        final long expiresAt;
+
+        Entry(PlayerHomes homes, long expiresAt) {
+            this.homes = homes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered, so the eldest entry is always the least recently viewed one
+    private final LinkedHashMap<UUID, Entry> entries;
+
+    // Per player with a load in flight: {version, loads}. The version is bumped when that player's
+    // entry is written or invalidated, so a load that started before must not put its (now stale)
+    // result back, see finishLoad. Loads for other players are unaffected.
+    private final Map<UUID, long[]> loads = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public OfflineHomeCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<UUID, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > OfflineHomeCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized PlayerHomes get(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(uuid);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.homes;
+    }
+
+    public synchronized void put(UUID uuid, PlayerHomes homes) {
+        if (maxSize == 0) return;
+        entries.put(uuid, new Entry(homes, System.currentTimeMillis() + ttlMillis));
+    }
+
+    // Call before reading from the database; every startLoad needs a finishLoad
+    public synchronized long startLoad(UUID uuid) {
+        long[] load = loads.computeIfAbsent(uuid, k -> new long[2]);
+        load[1]++;
+        return load[0];
+    }
+
+    // Only cache a freshly loaded value if this player wasn't written or invalidated since the load started.
+    // homes = null just ends the load, e.g. when it failed or the player came online meanwhile.
+    public synchronized void finishLoad(UUID uuid, PlayerHomes homes, long version) {
+        long[] load = loads.get(uuid);
+        if (load == null) return;
+        if (--load[1] == 0) loads.remove(uuid);
+        if (homes != null && load[0] == version) {
+            put(uuid, homes);
+        }
+    }
+
+    // Must hold the monitor
+    private void changed(UUID uuid) {
+        long[] load = loads.get(uuid);
+        if (load != null) load[0]++;
+    }
+
+    // Apply a write to a cached entry, keeping its original expiry
+    public synchronized void update(UUID uuid, UnaryOperator<PlayerHomes> change) {
+        changed(uuid);
+        Entry entry = entries.get(uuid);
+        if (entry != null) {
+            entries.put(uuid, new Entry(change.apply(entry.homes), entry.expiresAt));
+        }
+    }
+
+    public synchronized void invalidate(UUID uuid) {
+        changed(uuid);
+        entries.remove(uuid);
+    }
+
+    public synchronized void clear() {
+        for (long[] load : loads.values()) {
+            load[0]++;
+        }
+        entries.clear();
+    }
+
+    // Drop expired entries so they don't sit in memory until the next lookup
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now >= it.next().expiresAt) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : hits / (double) total;
+    }
+}
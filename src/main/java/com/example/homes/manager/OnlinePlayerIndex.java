@@ -0,0 +1,39 @@
+package com.example.homes.manager;
+
+import java.util.List;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Names of online players, kept in a prefix trie for tab completion
+public class OnlinePlayerIndex implements Listener {
+
+    private final PrefixTrie names = new PrefixTrie();
+
+    public OnlinePlayerIndex(JavaPlugin plugin) {
+        // Players already online (e.g. after /reload) never fire a join event for us
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            names.add(player.getName());
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        names.add(event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        names.remove(event.getPlayer().getName());
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        return names.complete(prefix, limit);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.homes.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case-insensitive prefix trie for tab completion.
+ * Keys are lowercased, the value added last under a key keeps its original casing.
+ * Lookups walk down to the prefix node and then collect at most {@code limit} values
+ * in alphabetical order, so cost depends on the prefix length and the limit,
+ * not on how many names are stored.
+ */
+public class PrefixTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        // Sorted by key, so a depth-first walk yields values in alphabetical order
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        String value;
+        int refs; // same name added for several owners, e.g. stale names after a rename
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) return children[index];
+            int insert = -(index + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            Node node = new Node();
+            newKeys[insert] = c;
+            newChildren[insert] = node;
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) return;
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return refs == 0 && keys.length == 0;
+        }
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    public synchronized void add(String value) {
+        if (value == null || value.isEmpty()) return;
+        String key = value.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrAddChild(key.charAt(i));
+        }
+        if (node.refs == 0) size++;
+        node.refs++;
+        node.value = value;
+    }
+
+    public synchronized void remove(String value) {
+        if (value == null || value.isEmpty()) return;
+        String key = value.toLowerCase(Locale.ROOT);
+
+        // Remember the path so empty branches can be pruned on the way back up
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = path[i].child(key.charAt(i));
+            if (next == null) return;
+            path[i + 1] = next;
+        }
+
+        Node node = path[key.length()];
+        if (node.refs == 0) return;
+        node.refs--;
+        if (node.refs > 0) return;
+        node.value = null;
+        size--;
+
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    // At most limit values starting with prefix (case-insensitive), alphabetical
+    public synchronized List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        if (limit <= 0) return result;
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    private void collect(Node node, List<String> result, int limit) {
+        if (node.refs > 0) {
+            result.add(node.value);
+        }
+        for (int i = 0; i < node.children.length && result.size() < limit; i++) {
+            collect(node.children[i], result, limit);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        root.keys = NO_KEYS;
+        root.children = NO_CHILDREN;
+        root.value = null;
+        root.refs = 0;
+        size = 0;
+    }
+}
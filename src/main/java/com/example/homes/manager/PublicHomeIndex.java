@@ -0,0 +1,145 @@
+package com.example.homes.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.bukkit.OfflinePlayer;
+
+import com.example.homes.HomesPlugin;
+import com.example.homes.database.DatabaseManager;
+
+/**
+ * In-memory index of players that own at least one public home, with their last-known names.
+ * Built once asynchronously at startup and then kept up to date by HomeManager's writes,
+ * so /vhome completion never touches the database.
+ */
+public class PublicHomeIndex {
+
+    private static final class Owner {
+        String name;
+        final Set<String> publicHomes = new HashSet<>();
+    }
+
+    private final HomesPlugin plugin;
+    private final Map<UUID, Owner> owners = new HashMap<>();
+    // Last-known names of the owners above, for prefix completion
+    private final PrefixTrie ownerNames = new PrefixTrie();
+
+    // Changes made before the startup snapshot arrives are replayed on top of it.
+    // Every change is idempotent (add/remove), so it doesn't matter whether the snapshot already saw it.
+    private List<Consumer<PublicHomeIndex>> pendingChanges = new ArrayList<>();
+
+    public PublicHomeIndex(HomesPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void build(DatabaseManager databaseManager) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, List<String>> snapshot = databaseManager.loadPublicHomes();
+
+            // Resolve names here so the main thread never has to
+            Map<UUID, String> names = new HashMap<>();
+            for (UUID uuid : snapshot.keySet()) {
+                names.put(uuid, plugin.getServer().getOfflinePlayer(uuid).getName());
+            }
+
+            synchronized (this) {
+                List<Consumer<PublicHomeIndex>> replay = pendingChanges;
+                pendingChanges = null;
+
+                for (Map.Entry<UUID, List<String>> entry : snapshot.entrySet()) {
+                    Owner owner = owners.computeIfAbsent(entry.getKey(), k -> new Owner());
+                    owner.publicHomes.addAll(entry.getValue());
+                    if (owner.name == null) {
+                        owner.name = names.get(entry.getKey());
+                        ownerNames.add(owner.name);
+                    }
+                }
+                for (Consumer<PublicHomeIndex> change : replay) {
+                    change.accept(this);
+                }
+            }
+            plugin.getLogger().info("Indexed " + snapshot.size() + " players with public homes.");
+        });
+    }
+
+    public synchronized void setPublic(UUID uuid, String name, boolean isPublic) {
+        if (defer(index -> index.setPublic(uuid, name, isPublic))) return;
+        if (isPublic) {
+            add(uuid, name);
+        } else {
+            remove(uuid, name);
+        }
+    }
+
+    // Deleting or overwriting a home (an upsert resets it to private) both drop it from the index
+    public synchronized void removeHome(UUID uuid, String name) {
+        if (defer(index -> index.removeHome(uuid, name))) return;
+        remove(uuid, name);
+    }
+
+    public synchronized void renameHome(UUID uuid, String oldName, String newName) {
+        if (defer(index -> index.renameHome(uuid, oldName, newName))) return;
+        Owner owner = owners.get(uuid);
+        if (owner != null && owner.publicHomes.remove(oldName)) {
+            owner.publicHomes.add(newName);
+        }
+    }
+
+    // Keep the last-known name fresh, e.g. after a name change
+    public synchronized void updateName(UUID uuid, String name) {
+        if (defer(index -> index.updateName(uuid, name))) return;
+        Owner owner = owners.get(uuid);
+        if (owner != null && !name.equals(owner.name)) {
+            ownerNames.remove(owner.name);
+            owner.name = name;
+            ownerNames.add(name);
+        }
+    }
+
+    // Up to limit owner names starting with prefix, without scanning every owner
+    public List<String> complete(String prefix, int limit) {
+        return ownerNames.complete(prefix, limit);
+    }
+
+    public synchronized int size() {
+        return owners.size();
+    }
+
+    // Must hold lock
+    private boolean defer(Consumer<PublicHomeIndex> change) {
+        if (pendingChanges == null) return false;
+        pendingChanges.add(change);
+        return true;
+    }
+
+    // Must hold lock
+    private void add(UUID uuid, String homeName) {
+        Owner owner = owners.get(uuid);
+        if (owner == null) {
+            owner = new Owner();
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(uuid);
+            owner.name = player.getName();
+            owners.put(uuid, owner);
+            ownerNames.add(owner.name);
+        }
+        owner.publicHomes.add(homeName);
+    }
+
+    // Must hold lock
+    private void remove(UUID uuid, String homeName) {
+        Owner owner = owners.get(uuid);
+        if (owner == null) return;
+        owner.publicHomes.remove(homeName);
+        if (owner.publicHomes.isEmpty()) {
+            owners.remove(uuid);
+            ownerNames.remove(owner.name);
+        }
+    }
+}
@@ -1,263 +1,444 @@
 package com.example.homes.manager;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Location;
 import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
 import com.example.homes.HomesPlugin;
+import com.example.homes.database.DatabaseManager;
+import com.example.homes.database.HomeRecord;
+import com.example.homes.database.ImportCheckpoint;
+import com.example.homes.database.WorldRegistry;
+import com.example.homes.importer.BatchHomeWriter;
+import com.example.homes.importer.ImportedHome;
 
+/**
+ * Imports homes from Skript's variables.csv in one streaming pass.
+ * The reader thread splits the file into chunks of lines, worker threads parse the chunks,
+ * and the parsed homes are written back in file order through a {@link BatchHomeWriter}.
+ * Progress is measured in bytes read, so the file never has to be read twice.
+ *
+ * After each committed batch the byte offset reached is stored in import_checkpoints, and the next
+ * run for the same file starts there. Skript appends every variable change to the file, so a later
+ * run only sees the new lines.
+ * Tail mode repeats that on a timer while Skript keeps writing.
+ */
 public class SkriptImportManager {
 
+    private static final int CHUNK_LINES = 2048;
+    private static final long BOSSBAR_INTERVAL_MILLIS = 500L;
+    // Bytes before the checkpoint that must be unchanged to resume there
+    private static final int FINGERPRINT_BYTES = 4096;
+
     private final HomesPlugin plugin;
     private final HomeManager homeManager;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private BukkitTask tailTask;
+
+    // Result of parsing one chunk of lines
+    private static final class ParsedChunk {
+        final List<ImportedHome> homes = new ArrayList<>();
+        final long end; // file offset just after the chunk's last line
+        int failed;
+
+        ParsedChunk(long end) {
+            this.end = end;
+        }
+    }
+
+    // State of one run, only touched by the thread reading the file
+    private static final class ImportRun {
+        final String source;
+        final File file;
+        final BatchHomeWriter writer;
+        long startOffset;
+        long committed; // every line before this offset is in the database
+        long drained;   // every line before this offset is in the database or in the batch
+        int lines;
+        int failed;
+
+        ImportRun(String source, File file, BatchHomeWriter writer) {
+            this.source = source;
+            this.file = file;
+            this.writer = writer;
+        }
+    }
 
     public SkriptImportManager(HomesPlugin plugin, HomeManager homeManager) {
         this.plugin = plugin;
         this.homeManager = homeManager;
     }
 
-    public void startImport(Player player, File csvFile) {
+    // Continue from the last checkpoint, or from the start if the file is new or was rewritten
+    public void startImport(CommandSender sender, File csvFile) {
+        startImport(sender, csvFile, false);
+    }
+
+    public void startImport(CommandSender sender, File csvFile, boolean restart) {
         if (!csvFile.exists()) {
-            player.sendMessage(ChatColor.RED + "ファイルが見つかりません: " + csvFile.getAbsolutePath());
+            sender.sendMessage(ChatColor.RED + "ファイルが見つかりません: " + csvFile.getAbsolutePath());
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "移行はすでに実行中です。");
             return;
         }
 
-        player.sendMessage(ChatColor.GREEN + "移行を開始します... バックグラウンドで処理されます。");
+        sender.sendMessage(ChatColor.GREEN + "移行を開始します... バックグラウンドで処理されます。");
         BossBar bossBar = Bukkit.createBossBar(ChatColor.YELLOW + "Skript データ移行中...", BarColor.YELLOW, BarStyle.SOLID);
-        bossBar.addPlayer(player);
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    // First pass: count lines
-                    int totalLines = countLines(csvFile);
-                    AtomicInteger processed = new AtomicInteger(0);
-                    AtomicInteger imported = new AtomicInteger(0);
-                    AtomicInteger failed = new AtomicInteger(0);
-
-                    try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
-                        String line;
-                        // Skip header if exists (starts with #)
-                        while ((line = br.readLine()) != null) {
-                            if (line.trim().startsWith("#") || line.trim().isEmpty()) {
-                                continue;
-                            }
-                            
-                            // Process line
-                            // Format: homes::UUID::Number, location, BINARY_DATA
-                            // Or: homes::UUID::Number, type, DATA
-                            
-                            String[] parts = line.split(",", 3);
-                            if (parts.length >= 3) {
-                                String key = parts[0].trim();
-                                String type = parts[1].trim();
-                                String data = parts[2].trim();
-
-                                if (key.startsWith("homes::") && type.equalsIgnoreCase("location")) {
-                                    // Parse Key
-                                    String[] keyParts = key.split("::");
-                                    if (keyParts.length == 3) {
-                                        String uuidStr = keyParts[1];
-                                        String homeNum = keyParts[2];
-                                        
-                                        try {
-                                            UUID uuid = UUID.fromString(uuidStr);
-                                            // Parse Location
-                                            Location loc = parseSkriptLocation(data);
-                                            
-                                            if (loc != null) {
-                                                // Save to HomeManager
-                                                // Use "Home <Num>" as name
-                                                String homeName = "Home " + homeNum;
-                                                
-                                                // Sync to main thread for DB operations if not thread safe (HomeManager uses DB)
-                                                // But usually DB ops are async safe or handled. 
-                                                // However, HomeManager methods might update cache which is not thread safe.
-                                                // Let's schedule a sync task for the actual save, or batch them.
-                                                // For simplicity/safety, sync task per batch or single.
-                                                // Given the potential volume, sync per item is slow but safe.
-                                                
-                                                // Actually, let's just do it directly if DB manager handles connection pool.
-                                                // But HomeManager.setHome might trigger events or messages? No, just DB.
-                                                // Let's call a method that doesn't message player.
-                                                // homeManager.setHome sends messages? No, it just saves.
-                                                // But let's check HomeManager source.
-                                                // It seems safe.
-                                                
-                                                // WARNING: setHome updates cache which is ConcurrentHashMap, so it's thread safe.
-                                                // BUT, databaseManager operations should be checked.
-                                                
-                                                // To be safe and avoid lag, we should run DB inserts here (async).
-                                                homeManager.setHomeDirectly(uuid, homeName, loc);
-                                                imported.incrementAndGet();
-                                            } else {
-                                                failed.incrementAndGet();
-                                                plugin.getLogger().warning("Failed to parse location for " + key);
-                                            }
-                                        } catch (IllegalArgumentException e) {
-                                            failed.incrementAndGet(); // Invalid UUID
-                                        }
-                                    }
-                                }
-                            }
-
-                            int current = processed.incrementAndGet();
-                            double progress = (double) current / totalLines;
-                            
-                            // Update BossBar (Sync)
-                            if (current % 10 == 0) {
-                                new BukkitRunnable() {
-                                    @Override
-                                    public void run() {
-                                        bossBar.setProgress(Math.min(1.0, progress));
-                                        bossBar.setTitle(ChatColor.YELLOW + "Skript データ移行中... " + (int)(progress * 100) + "% (" + current + "/" + totalLines + ")");
-                                    }
-                                }.runTask(plugin);
-                            }
-                        }
+        if (sender instanceof Player player) {
+            bossBar.addPlayer(player);
+        }
+        Map<String, String> worldMap = loadWorldMap();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                if (restart) {
+                    homeManager.getDatabaseManager().deleteImportCheckpoint(csvFile.getCanonicalPath());
+                }
+                long start = System.currentTimeMillis();
+                ImportRun run = runImport(csvFile, worldMap, false, bossBar);
+                long elapsed = System.currentTimeMillis() - start;
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    bossBar.removeAll();
+                    // Imported rows went straight to the database, reload what's cached
+                    homeManager.reload();
+                    if (run.startOffset > 0) {
+                        sender.sendMessage(ChatColor.GREEN + "前回の続き (" + run.startOffset + " バイト目) から再開しました。");
                     }
+                    sender.sendMessage(ChatColor.GREEN + "移行が完了しました！");
+                    sender.sendMessage(ChatColor.GREEN + "成功: " + run.writer.getWritten() + ", 変更なし: " + run.writer.getUnchanged()
+                            + ", 失敗/スキップ: " + run.failed);
+                    plugin.getLogger().info("Migration finished. Imported: " + run.writer.getWritten() + ", Unchanged: " + run.writer.getUnchanged()
+                            + ", Failed: " + run.failed + ", Lines: " + run.lines + " from offset " + run.startOffset
+                            + " in " + elapsed + "ms");
+                });
+            } catch (IOException | InterruptedException | ExecutionException e) {
+                plugin.getLogger().warning("Skript import failed: " + e);
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    bossBar.removeAll();
+                    sender.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage());
+                });
+            } finally {
+                running.set(false);
+            }
+        });
+    }
 
-                    // Finish
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            bossBar.removeAll();
-                            player.sendMessage(ChatColor.GREEN + "移行が完了しました！");
-                            player.sendMessage(ChatColor.GREEN + "成功: " + imported.get() + ", 失敗/スキップ: " + failed.get());
-                            plugin.getLogger().info("Migration finished. Imported: " + imported.get() + ", Failed: " + failed.get());
-                        }
-                    }.runTask(plugin);
-
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            bossBar.removeAll();
-                            player.sendMessage(ChatColor.RED + "エラーが発生しました: " + e.getMessage());
-                        }
-                    }.runTask(plugin);
+    // Import whatever was appended since the last checkpoint, every few seconds, until stopTail
+    public void startTail(CommandSender sender, File csvFile) {
+        if (tailTask != null) {
+            sender.sendMessage(ChatColor.RED + "追従モードはすでに実行中です。");
+            return;
+        }
+        if (!csvFile.exists()) {
+            sender.sendMessage(ChatColor.RED + "ファイルが見つかりません: " + csvFile.getAbsolutePath());
+            return;
+        }
+        Map<String, String> worldMap = loadWorldMap();
+        long interval = Math.max(1, plugin.getConfig().getInt("import.skript.tail-interval-seconds", 10)) * 20L;
+        tailTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                () -> pollTail(csvFile, worldMap), 0L, interval);
+        sender.sendMessage(ChatColor.GREEN + "追従モードを開始しました: " + csvFile.getPath());
+    }
+
+    public void stopTail(CommandSender sender) {
+        if (tailTask == null) {
+            sender.sendMessage(ChatColor.RED + "追従モードは実行されていません。");
+            return;
+        }
+        tailTask.cancel();
+        tailTask = null;
+        sender.sendMessage(ChatColor.GREEN + "追従モードを停止しました。");
+    }
+
+    public boolean isTailing() {
+        return tailTask != null;
+    }
+
+    private void pollTail(File csvFile, Map<String, String> worldMap) {
+        // A manual import is running, try again next time
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            if (!csvFile.exists()) return; // Skript may be replacing the file right now
+            ImportRun run = runImport(csvFile, worldMap, true, null);
+            if (run.writer.getWritten() > 0 || run.failed > 0) {
+                plugin.getLogger().info("Skript tail: imported " + run.writer.getWritten() + ", unchanged " + run.writer.getUnchanged()
+                        + ", failed " + run.failed + " (" + run.lines + " new lines)");
+            }
+            if (!run.writer.getTouched().isEmpty()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> homeManager.refreshHomes(run.writer.getTouched()));
+            }
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            plugin.getLogger().warning("Skript tail import failed: " + e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // tail: stop before a last line without a newline, Skript may still be writing it
+    private ImportRun runImport(File csvFile, Map<String, String> worldMap, boolean tail, BossBar bossBar)
+            throws IOException, InterruptedException, ExecutionException {
+        DatabaseManager database = homeManager.getDatabaseManager();
+        ImportRun run = new ImportRun(csvFile.getCanonicalPath(), csvFile, new BatchHomeWriter(database));
+        long size = csvFile.length();
+
+        ImportCheckpoint checkpoint = database.loadImportCheckpoint(run.source);
+        if (checkpoint != null) {
+            if (checkpoint.offset() <= size && checkpoint.fingerprint() == fingerprint(csvFile, checkpoint.offset())) {
+                run.startOffset = checkpoint.offset();
+            } else {
+                // Truncated or rewritten (Skript compacts the file now and then); unchanged rows are skipped anyway
+                plugin.getLogger().info("Skript variables file changed since the last import, reading it from the start");
+            }
+        }
+        run.committed = run.startOffset;
+        run.drained = run.startOffset;
+        if (run.startOffset == size) return run;
+
+        long totalBytes = Math.max(1L, size - run.startOffset);
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "HomesPlugin-SkriptImport");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Chunks being parsed, oldest first. Bounded so a huge file never sits in memory at once.
+        ArrayDeque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+        long lastBar = 0;
+
+        try (LineReader reader = new LineReader(new FileInputStream(csvFile), run.startOffset, tail)) {
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.lines++;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    List<String> toParse = chunk;
+                    long end = reader.position();
+                    inFlight.add(pool.submit(() -> parseChunk(toParse, worldMap, end)));
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                }
+                while (inFlight.size() > workers * 2) {
+                    drain(inFlight.poll().get(), run);
                 }
+
+                long now = System.currentTimeMillis();
+                if (bossBar != null && now - lastBar >= BOSSBAR_INTERVAL_MILLIS) {
+                    lastBar = now;
+                    updateBar(bossBar, reader.position() - run.startOffset, totalBytes, run.writer.getWritten());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<String> toParse = chunk;
+                long end = reader.position();
+                inFlight.add(pool.submit(() -> parseChunk(toParse, worldMap, end)));
+            }
+            while (!inFlight.isEmpty()) {
+                drain(inFlight.poll().get(), run);
+            }
+            flushBatch(run, run.drained);
+        } finally {
+            pool.shutdownNow();
+        }
+        return run;
+    }
+
+    // Collect parsed homes in file order and write them once a batch is full
+    private void drain(ParsedChunk parsed, ImportRun run) throws IOException {
+        run.failed += parsed.failed;
+        for (ImportedHome imported : parsed.homes) {
+            run.writer.add(imported);
+            if (run.writer.isFull()) {
+                // Part of this chunk is still unread by the batch, so only the previous chunks are done
+                flushBatch(run, run.drained);
             }
-        }.runTaskAsynchronously(plugin);
+        }
+        run.drained = parsed.end;
+    }
+
+    // Write the batch, then move the checkpoint to offset
+    private void flushBatch(ImportRun run, long offset) throws IOException {
+        run.writer.flush();
+        if (offset > run.committed) {
+            // A crash between the batch and this leaves an offset that's one batch behind;
+            // those rows are then found unchanged and skipped on the next run
+            homeManager.getDatabaseManager().saveImportCheckpoint(run.source, new ImportCheckpoint(offset, fingerprint(run.file, offset)));
+            run.committed = offset;
+        }
     }
 
-    private int countLines(File file) throws IOException {
-        int lines = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            while (reader.readLine() != null) lines++;
+    // CRC32 of the bytes just before offset
+    private static long fingerprint(File file, long offset) throws IOException {
+        int length = (int) Math.min(FINGERPRINT_BYTES, offset);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = offset - length;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) break;
+            }
+        }
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    private void updateBar(BossBar bossBar, long bytesRead, long totalBytes, int imported) {
+        double progress = Math.min(1.0, bytesRead / (double) totalBytes);
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            bossBar.setProgress(progress);
+            bossBar.setTitle(ChatColor.YELLOW + "Skript データ移行中... " + (int) (progress * 100) + "% (" + imported + " 件)");
+        });
+    }
+
+    // Runs on a worker thread: no Bukkit API, no shared state
+    private ParsedChunk parseChunk(List<String> lines, Map<String, String> worldMap, long end) {
+        ParsedChunk parsed = new ParsedChunk(end);
+        for (String line : lines) {
+            String trimmed = line.trim();
+            // Skip header if exists (starts with #)
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            // Format: homes::UUID::Number, location, BINARY_DATA
+            String[] parts = trimmed.split(",", 3);
+            if (parts.length < 3) continue;
+            String key = parts[0].trim();
+            String type = parts[1].trim();
+            if (!key.startsWith("homes::") || !type.equalsIgnoreCase("location")) continue;
+
+            String[] keyParts = key.split("::");
+            if (keyParts.length != 3) continue;
+            try {
+                UUID uuid = UUID.fromString(keyParts[1]);
+                // Use "Home <Num>" as name
+                HomeRecord home = parseSkriptLocation("Home " + keyParts[2], parts[2].trim(), worldMap);
+                if (home != null) {
+                    parsed.homes.add(new ImportedHome(uuid, home));
+                } else {
+                    parsed.failed++;
+                    plugin.getLogger().warning("Failed to parse location for " + key);
+                }
+            } catch (IllegalArgumentException e) {
+                parsed.failed++; // Invalid UUID
+            }
         }
-        return lines;
+        return parsed;
     }
 
     /**
-     * Parses Skript's hex-encoded binary location string.
-     * Note: This is a best-effort heuristic parser based on known patterns.
-     * Skript binary format is complex and might vary.
-     * 
-     * Pattern observed in example:
-     * 8605776F726C6480FF0000000181046E616D65208010537572766976616C5F7468655F656E64017809408D15F7620B77560179093FE0000000000000017A09C07D7C5FF4BE3B140570697463680840F8E04C037961770842A907BA
-     * 
-     * "world" -> 776F726C64
-     * "name" -> 6E616D65
-     * "Survival_the_end" -> 537572766976616C5F7468655F656E64
-     * "x" -> 78
-     * "y" -> 79
-     * "z" -> 7A
-     * "pitch" -> 7069746368
-     * "yaw" -> 796177
-     * 
-     * Values seem to follow keys.
-     * Doubles seem to be 8 bytes (64-bit IEEE 754) often prefixed by 09 (type marker?)
+     * Reads UTF-8 lines straight from a byte stream and knows exactly how many bytes it has consumed,
+     * unlike a BufferedReader which reads ahead.
      */
-    private Location parseSkriptLocation(String hexData) {
-        try {
-            // Heuristic Parsing
-            // 1. Find World Name
-            String worldName = extractStringAfterKey(hexData, "name");
-            if (worldName == null) worldName = extractStringAfterKey(hexData, "world"); // fallback
-            if (worldName == null) return null;
-
-            // 2. Find Coordinates (x, y, z)
-            // Keys are "x" (78), "y" (79), "z" (7A)
-            // Values are doubles.
-            double x = extractDoubleAfterKey(hexData, "78"); // x
-            double y = extractDoubleAfterKey(hexData, "79"); // y
-            double z = extractDoubleAfterKey(hexData, "7A"); // z
-            
-            // 3. Find Rotation (pitch, yaw)
-            // Keys: "pitch" (7069746368), "yaw" (796177)
-            // Note: In Skript dump, pitch/yaw might be floats or doubles.
-            // Example dump shows pitch/yaw after z.
-            // Let's try to extract them.
-            float pitch = (float) extractDoubleAfterKey(hexData, "7069746368");
-            float yaw = (float) extractDoubleAfterKey(hexData, "796177");
-
-            if (Bukkit.getWorld(worldName) == null) {
-                // Try to map "Survival" to "world", etc if needed
-                // For now, just log warning if null but proceed (it will be null in Location)
+    private static final class LineReader implements AutoCloseable {
+        private final FileInputStream in;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int pos;
+        private int limit;
+        private long consumed; // file offset of buffer[pos]
+        private final boolean completeLinesOnly;
+        private byte[] line = new byte[256];
+
+        LineReader(FileInputStream in, long offset, boolean completeLinesOnly) throws IOException {
+            this.in = in;
+            in.getChannel().position(offset);
+            this.consumed = offset;
+            this.completeLinesOnly = completeLinesOnly;
+        }
+
+        String readLine() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (pos == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    pos = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (any && completeLinesOnly) {
+                            consumed -= length; // Not read yet as far as position() is concerned
+                            return null;
+                        }
+                        return any ? decode(length) : null;
+                    }
+                }
+                any = true;
+                byte b = buffer[pos++];
+                consumed++;
+                if (b == '\n') {
+                    return decode(length);
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
             }
+        }
 
-            return new Location(Bukkit.getWorld(worldName), x, y, z, yaw, pitch);
-        } catch (Exception e) {
-            // e.printStackTrace();
-            return null;
+        private String decode(int length) {
+            if (length > 0 && line[length - 1] == '\r') length--;
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        long position() {
+            return consumed;
         }
-    }
 
-    private String extractStringAfterKey(String hex, String keyName) {
-        // Key is usually preceded by length or type?
-        // In the example: ... 6E616D65 (name) 20 (space?) 80 (map?) 10 (length 16?) 53... (Survival...)
-        // Hex for "name" is 6E616D65
-        
-        // Simple strategy: Find hex of key, look ahead for string content.
-        // Skript serialization is NBT-like or custom.
-        // Let's try to find the ASCII bytes of the world name.
-        
-        // "Survival" = 537572766976616C
-        // "Survival_nether" = 537572766976616C5F6E6574686572
-        // "Survival_the_end" = 537572766976616C5F7468655F656E64
-        
-        // Regex lookups for known world names might be safer/easier if standard worlds.
-        if (hex.contains("537572766976616C5F6E6574686572")) return "world_nether";
-        if (hex.contains("537572766976616C5F7468655F656E64")) return "world_the_end";
-        if (hex.contains("537572766976616C")) return "world";
-        
-        return null;
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
     }
 
-    private double extractDoubleAfterKey(String hex, String keyHex) {
-        // Locate key
-        int index = hex.indexOf(keyHex);
-        if (index == -1) return 0.0;
-        
-        // After key (e.g. "78" for x), there is usually a type marker (09 for double?) then 8 bytes (16 hex chars)
-        // Example: ... 01 78 (x) 09 (double) 408D15F7620B7756 ...
-        // So skip key length + 2 chars (type marker)
-        
-        try {
-            int start = index + keyHex.length() + 2;
-            String doubleHex = hex.substring(start, start + 16);
-            long longBits = Long.parseUnsignedLong(doubleHex, 16);
-            return Double.longBitsToDouble(longBits);
-        } catch (Exception e) {
-            return 0.0;
+    // Skript world names to this server's world names; unmapped names are kept as they are
+    private Map<String, String> loadWorldMap() {
+        Map<String, String> worldMap = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("import.skript.world-map");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String value = section.getString(key);
+                if (value != null && !value.isEmpty()) worldMap.put(key, value);
+            }
         }
+        return worldMap;
+    }
+
+    // Null if the value isn't a location we can decode
+    private static HomeRecord parseSkriptLocation(String homeName, String hexData, Map<String, String> worldMap) {
+        SkriptLocationDecoder.Decoded loc = SkriptLocationDecoder.decode(hexData);
+        if (loc == null) return null;
+        String worldName = worldMap.getOrDefault(loc.world(), loc.world());
+        // Stored by world name, the world doesn't have to be loaded to import it
+        return new HomeRecord(homeName, WorldRegistry.idOf(worldName), loc.x(), loc.y(), loc.z(), loc.yaw(), loc.pitch(), false);
     }
 }
@@ -0,0 +1,265 @@
+package com.example.homes.manager;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the hex value of a {@code location} variable from Skript's variables.csv.
+ *
+ * The value is a Yggdrasil field map without the object header. Example (spaces added):
+ * <pre>
+ * 86                         6 fields
+ * 05 "world" 80 FF 00000001  field "world", object of type short-string #1 ("world")
+ *   81 04 "name" 20 8010 "Survival_the_end"   1 field: "name", string of length 16
+ * 01 "x" 09 408D15F7620B7756 field "x", double
+ * ...
+ * 05 "pitch" 08 40F8E04C     field "pitch", float
+ * </pre>
+ * Short strings longer than 4 bytes go into a table and may later be written as
+ * FF + int index. Index 0 is the type name ("location") that Skript strips from the value.
+ *
+ * The hex is turned into bytes once and walked in a single pass. Field names are compared
+ * as bytes, the world name is the only String created.
+ */
+final class SkriptLocationDecoder {
+
+    // Yggdrasil tags
+    private static final int T_NULL = 0x00;
+    private static final int T_BYTE = 0x01;
+    private static final int T_SHORT = 0x02;
+    private static final int T_INT = 0x03;
+    private static final int T_LONG = 0x04;
+    private static final int T_FLOAT = 0x08;
+    private static final int T_DOUBLE = 0x09;
+    private static final int T_STRING = 0x20;
+    private static final int T_OBJECT = 0x80;
+    private static final int T_REFERENCE = 0xFF;
+
+    private static final byte[] LOCATION = bytes("location");
+    private static final byte[] WORLD = bytes("world");
+    private static final byte[] NAME = bytes("name");
+    private static final byte[] X = bytes("x");
+    private static final byte[] Y = bytes("y");
+    private static final byte[] Z = bytes("z");
+    private static final byte[] YAW = bytes("yaw");
+    private static final byte[] PITCH = bytes("pitch");
+
+    private static final int MAX_SHORT_STRINGS = 32;
+
+    record Decoded(String world, double x, double y, double z, float yaw, float pitch) {
+    }
+
+    private final byte[] data;
+    private int pos;
+
+    // Short-string table as (source array, offset, length), no Strings
+    private final byte[][] tableSource = new byte[MAX_SHORT_STRINGS][];
+    private final int[] tableOffset = new int[MAX_SHORT_STRINGS];
+    private final int[] tableLength = new int[MAX_SHORT_STRINGS];
+    private int tableSize;
+
+    // Last short string read, as a view into data or a table entry
+    private byte[] strSource;
+    private int strOffset;
+    private int strLength;
+
+    // Last number read
+    private double number;
+
+    private SkriptLocationDecoder(byte[] data) {
+        this.data = data;
+        addShortString(LOCATION, 0, LOCATION.length);
+    }
+
+    // Null if the value isn't a location this decoder understands
+    static Decoded decode(CharSequence hex) {
+        byte[] data = hexToBytes(hex);
+        if (data == null) return null;
+        try {
+            return new SkriptLocationDecoder(data).readLocation();
+        } catch (IndexOutOfBoundsException e) {
+            return null; // Truncated value
+        }
+    }
+
+    private Decoded readLocation() {
+        String world = null;
+        double x = Double.NaN, y = Double.NaN, z = Double.NaN;
+        float yaw = 0, pitch = 0;
+
+        int fields = readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            readShortString();
+            if (nameIs(WORLD)) {
+                world = readWorld();
+                continue;
+            }
+            byte[] field = nameIs(X) ? X : nameIs(Y) ? Y : nameIs(Z) ? Z : nameIs(YAW) ? YAW : nameIs(PITCH) ? PITCH : null;
+            int tag = read();
+            if (field == null) {
+                if (!skipValue(tag)) return null;
+                continue;
+            }
+            if (!readNumber(tag)) return null;
+            if (field == X) x = number;
+            else if (field == Y) y = number;
+            else if (field == Z) z = number;
+            else if (field == YAW) yaw = (float) number;
+            else pitch = (float) number;
+        }
+
+        if (world == null || Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(z)) return null;
+        return new Decoded(world, x, y, z, yaw, pitch);
+    }
+
+    // The world is an object with a "name" field; plain strings are accepted too
+    private String readWorld() {
+        int tag = read();
+        if (tag == T_STRING) {
+            return readString();
+        }
+        if (tag != T_OBJECT) {
+            skipValue(tag);
+            return null;
+        }
+        readShortString(); // type, "world"
+        String name = null;
+        int fields = readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            readShortString();
+            boolean isName = nameIs(NAME);
+            int fieldTag = read();
+            if (isName && fieldTag == T_STRING) {
+                name = readString();
+            } else if (!skipValue(fieldTag)) {
+                return null;
+            }
+        }
+        return name;
+    }
+
+    private boolean readNumber(int tag) {
+        switch (tag) {
+            case T_DOUBLE: number = Double.longBitsToDouble(readLong()); return true;
+            case T_FLOAT: number = Float.intBitsToFloat(readInt()); return true;
+            case T_INT: number = readInt(); return true;
+            case T_LONG: number = readLong(); return true;
+            case T_SHORT: number = (short) readShort(); return true;
+            case T_BYTE: number = (byte) read(); return true;
+            default: return false;
+        }
+    }
+
+    // Skip a value we don't need; false for anything we can't size
+    private boolean skipValue(int tag) {
+        switch (tag) {
+            case T_NULL: return true;
+            case T_BYTE: pos += 1; return true;
+            case T_SHORT: pos += 2; return true;
+            case T_INT:
+            case T_FLOAT: pos += 4; return true;
+            case T_LONG:
+            case T_DOUBLE: pos += 8; return true;
+            case T_STRING: pos += readUnsignedInt(); return true;
+            case T_OBJECT: {
+                readShortString();
+                int fields = readUnsignedShort();
+                for (int i = 0; i < fields; i++) {
+                    readShortString();
+                    if (!skipValue(read())) return false;
+                }
+                return true;
+            }
+            default: return false;
+        }
+    }
+
+    private String readString() {
+        int length = readUnsignedInt();
+        String value = new String(data, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    private void readShortString() {
+        int length = read();
+        if (length == T_REFERENCE) {
+            int index = readInt();
+            if (index < 0 || index >= tableSize) throw new IndexOutOfBoundsException("short string " + index);
+            strSource = tableSource[index];
+            strOffset = tableOffset[index];
+            strLength = tableLength[index];
+            return;
+        }
+        strSource = data;
+        strOffset = pos;
+        strLength = length;
+        if (pos + length > data.length) throw new IndexOutOfBoundsException("short string");
+        pos += length;
+        if (length > 4) {
+            addShortString(data, strOffset, length);
+        }
+    }
+
+    private void addShortString(byte[] source, int offset, int length) {
+        if (tableSize == MAX_SHORT_STRINGS) return; // A location never gets near this
+        tableSource[tableSize] = source;
+        tableOffset[tableSize] = offset;
+        tableLength[tableSize] = length;
+        tableSize++;
+    }
+
+    private boolean nameIs(byte[] expected) {
+        if (strLength != expected.length) return false;
+        for (int i = 0; i < strLength; i++) {
+            if (strSource[strOffset + i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    // 0x80 | n for n < 0x80, otherwise a big-endian short
+    private int readUnsignedShort() {
+        int b = read();
+        if ((b & 0x80) != 0) return b & 0x7F;
+        return (b << 8) | read();
+    }
+
+    // 0x8000 | n as a short for n < 0x8000, otherwise a big-endian int
+    private int readUnsignedInt() {
+        int b = read();
+        if ((b & 0x80) != 0) return ((b & 0x7F) << 8) | read();
+        return (b << 24) | (read() << 16) | (read() << 8) | read();
+    }
+
+    private int read() {
+        return data[pos++] & 0xFF;
+    }
+
+    private int readShort() {
+        return (read() << 8) | read();
+    }
+
+    private int readInt() {
+        return (read() << 24) | (read() << 16) | (read() << 8) | read();
+    }
+
+    private long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private static byte[] hexToBytes(CharSequence hex) {
+        int length = hex.length();
+        if ((length & 1) != 0) return null;
+        byte[] bytes = new byte[length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = Character.digit(hex.charAt(i * 2), 16);
+            int lo = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (hi < 0 || lo < 0) return null;
+            bytes[i] = (byte) ((hi << 4) | lo);
+        }
+        return bytes;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
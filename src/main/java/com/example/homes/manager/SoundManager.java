@@ -1,8 +1,8 @@
 package com.example.homes.manager;
 
 import com.example.homes.HomesPlugin;
+import com.example.homes.config.SoundEntry;
 import org.bukkit.Location;
-import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 
 public class SoundManager {
@@ -13,37 +13,28 @@ public class SoundManager {
         this.plugin = plugin;
     }
 
+    // Sounds are resolved when the settings snapshot is built, this is just a map lookup
     public void play(Player player, String key) {
-        play(player, key, 1f, 1f);
+        SoundEntry entry = plugin.getSettings().sound(key);
+        if (entry == null) {
+            return;
+        }
+        player.playSound(player.getLocation(), entry.sound, entry.volume, entry.pitch);
     }
 
     public void play(Player player, String key, float volume, float pitch) {
-        String soundName = plugin.getConfig().getString("sounds." + key);
-        if (soundName == null || soundName.equalsIgnoreCase("NONE")) {
+        SoundEntry entry = plugin.getSettings().sound(key);
+        if (entry == null) {
             return;
         }
-
-        try {
-            Sound sound = Sound.valueOf(soundName.toUpperCase());
-            player.playSound(player.getLocation(), sound, volume, pitch);
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("Invalid sound name in config: " + soundName);
-        }
+        player.playSound(player.getLocation(), entry.sound, volume, pitch);
     }
     
     public void playAtLocation(Location loc, String key, float volume, float pitch) {
-        String soundName = plugin.getConfig().getString("sounds." + key);
-        if (soundName == null || soundName.equalsIgnoreCase("NONE")) {
+        SoundEntry entry = plugin.getSettings().sound(key);
+        if (entry == null || loc.getWorld() == null) {
             return;
         }
-
-        try {
-            Sound sound = Sound.valueOf(soundName.toUpperCase());
-            if (loc.getWorld() != null) {
-                loc.getWorld().playSound(loc, sound, volume, pitch);
-            }
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("Invalid sound name in config: " + soundName);
-        }
+        loc.getWorld().playSound(loc, entry.sound, volume, pitch);
     }
 }
@@ -1,11 +1,17 @@
 package com.example.homes.manager;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import com.example.homes.HomesPlugin;
 
@@ -14,86 +20,133 @@ public class TeleportManager {
     private final HomesPlugin plugin;
     private final SoundManager soundManager;
     private final TpaManager tpaManager;
+    private final WarmupScheduler warmups;
+    private static final String BYPASS_DELAY_PERMISSION = "homes.teleport.bypass-delay";
+
+    // Destination chunks held loaded for pending teleports, with how many teleports wait on each
+    private record ChunkKey(UUID world, long key) {}
+    private final Map<ChunkKey, Integer> chunkTickets = new HashMap<>();
 
     public TeleportManager(HomesPlugin plugin, SoundManager soundManager, TpaManager tpaManager) {
         this.plugin = plugin;
         this.soundManager = soundManager;
         this.tpaManager = tpaManager;
+        this.warmups = new WarmupScheduler(plugin, soundManager);
     }
 
     public void teleport(Player player, Location target) {
-        teleport(player, (Object) target);
+        teleport(player, (Object) target, true, null);
+    }
+
+    // saveBack = false for /back itself, which walks back through the history instead of adding to it.
+    // onArrive runs only after a successful teleport, never for a cancelled warmup or a failed teleport.
+    public void teleport(Player player, Location target, boolean saveBack, Runnable onArrive) {
+        teleport(player, (Object) target, saveBack, onArrive);
     }
     
     public void teleport(Player player, Player target) {
-        teleport(player, (Object) target);
+        teleport(player, (Object) target, true, null);
     }
 
-    private void teleport(Player player, Object target) {
-        // Save current location to back before teleporting
-        if (tpaManager != null) {
-            tpaManager.saveLastLocation(player);
-        }
+    private void teleport(Player player, Object target, boolean saveBack, Runnable onArrive) {
+        // Start loading the destination now, so it's ready (or close) when the countdown ends
+        CompletableFuture<Chunk> chunk = target instanceof Location ? preloadChunk((Location) target) : null;
         
-        // 5 seconds delay fixed (or config)
-        int delay = 5; 
+        int delay = player.hasPermission(BYPASS_DELAY_PERMISSION) ? 0 : plugin.getSettings().teleportDelay;
         
         if (delay <= 0) {
-            doTeleport(player, target);
-            player.sendMessage(plugin.getMessage("teleport-success"));
-            soundManager.play(player, "teleport-success");
+            warmups.cancel(player.getUniqueId());
+            finishTeleport(player, target, chunk, saveBack, onArrive);
             return;
         }
         
         player.sendMessage(ChatColor.YELLOW + String.valueOf(delay) + "秒後にテレポートします。動かないでください。");
-        
-        Location initialLoc = player.getLocation();
-        
-        new BukkitRunnable() {
-            int timeLeft = delay;
-            
-            @Override
-            public void run() {
-                if (!player.isOnline()) {
-                    this.cancel();
-                    return;
-                }
-                
-                // Check movement
-                if (player.getLocation().distance(initialLoc) > 0.1) {
-                    player.sendMessage(plugin.getMessage("teleport-cancelled"));
-                    soundManager.play(player, "teleport-fail");
-                    this.cancel();
-                    return;
-                }
-                
-                if (timeLeft <= 0) {
-                    doTeleport(player, target);
-                    player.sendMessage(plugin.getMessage("teleport-success"));
-                    soundManager.play(player, "teleport-success");
-                    this.cancel();
-                } else {
-                    player.sendTitle(ChatColor.GREEN + String.valueOf(timeLeft), "", 0, 20, 0);
-                    soundManager.play(player, "teleport-count");
-                    timeLeft--;
-                }
+        warmups.start(player, delay, () -> finishTeleport(player, target, chunk, saveBack, onArrive), () -> releaseChunk(chunk));
+    }
+
+    private void finishTeleport(Player player, Object target, CompletableFuture<Chunk> chunk, boolean saveBack, Runnable onArrive) {
+        if (chunk == null || chunk.isDone()) {
+            doTeleport(player, target, chunk, saveBack, onArrive);
+            return;
+        }
+        // Countdown is over but the chunk isn't: teleport as soon as it arrives (completed on the main thread)
+        chunk.whenComplete((c, e) -> {
+            if (player.isOnline()) {
+                doTeleport(player, target, chunk, saveBack, onArrive);
+            } else {
+                releaseChunk(chunk);
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+        });
+    }
+
+    public WarmupScheduler getWarmups() {
+        return warmups;
+    }
+
+    // Load (or generate) the chunk off the main thread and hold it with a plugin ticket until released
+    private CompletableFuture<Chunk> preloadChunk(Location target) {
+        World world = target.getWorld();
+        if (world == null) return null;
+        return world.getChunkAtAsync(target.getBlockX() >> 4, target.getBlockZ() >> 4).thenApply(chunk -> {
+            ChunkKey key = new ChunkKey(world.getUID(), chunk.getChunkKey());
+            if (chunkTickets.merge(key, 1, Integer::sum) == 1) {
+                chunk.addPluginChunkTicket(plugin);
+            }
+            return chunk;
+        });
+    }
+
+    private void releaseChunk(CompletableFuture<Chunk> future) {
+        if (future == null) return;
+        future.thenAccept(chunk -> {
+            ChunkKey key = new ChunkKey(chunk.getWorld().getUID(), chunk.getChunkKey());
+            // Other pending teleports to the same chunk keep the ticket
+            if (chunkTickets.computeIfPresent(key, (k, refs) -> refs > 1 ? refs - 1 : null) == null) {
+                chunk.removePluginChunkTicket(plugin);
+            }
+        });
+    }
+
+    public int getHeldChunks() {
+        return chunkTickets.size();
     }
     
-    private void doTeleport(Player player, Object target) {
+    private void doTeleport(Player player, Object target, CompletableFuture<Chunk> chunk, boolean saveBack, Runnable onArrive) {
+        Location destination = null;
         if (target instanceof Player) {
             Player targetPlayer = (Player) target;
             if (targetPlayer.isOnline()) {
-                player.teleport(targetPlayer.getLocation());
-                playTeleportEffect(player);
-            } else {
-                player.sendMessage(ChatColor.RED + "テレポート先が見つかりません。");
+                // A player's own chunk is always loaded
+                destination = targetPlayer.getLocation();
             }
         } else if (target instanceof Location) {
-            player.teleport((Location) target);
-            playTeleportEffect(player);
+            destination = (Location) target;
         }
+
+        if (destination == null) {
+            player.sendMessage(ChatColor.RED + "テレポート先が見つかりません。");
+            releaseChunk(chunk);
+            return;
+        }
+
+        // Where the player actually left from, recorded for /back only if the teleport goes through.
+        // Cancelled warmups and failed teleports would otherwise fill the history with the spot they're standing on
+        Location origin = player.getLocation();
+        player.teleportAsync(destination).whenComplete((success, e) -> {
+            releaseChunk(chunk);
+            if (e != null || !Boolean.TRUE.equals(success)) {
+                player.sendMessage(ChatColor.RED + "テレポートに失敗しました。");
+                soundManager.play(player, "teleport-fail");
+                return;
+            }
+            if (saveBack && tpaManager != null) {
+                tpaManager.saveLastLocation(player, origin);
+            }
+            playTeleportEffect(player);
+            player.sendMessage(plugin.getMessage("teleport-success"));
+            soundManager.play(player, "teleport-success");
+            if (onArrive != null) onArrive.run();
+        });
     }
 
     private void playTeleportEffect(Player player) {
@@ -1,7 +1,10 @@
 package com.example.homes.manager;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -9,32 +12,44 @@ import java.util.UUID;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import com.example.homes.HomesPlugin;
+import com.example.homes.config.PluginSettings;
+import com.example.homes.database.PlayerSettings;
 
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 
-public class TpaManager {
+public class TpaManager implements Listener {
 
     private final HomesPlugin plugin;
     
-    // Request: Receiver UUID -> Sender UUID (One pending request at a time per player)
-    // Or better: Map<Receiver, Map<Sender, RequestType>> but simple TPA usually allows one or stack.
-    // Let's allow multiple requests but separate them by sender.
-    // Map<ReceiverUUID, Map<SenderUUID, RequestType>>
-    private final Map<UUID, Map<UUID, TpaRequest>> requests = new HashMap<>();
+    // Pending requests per receiver, newest first. A receiver rarely has more than a few,
+    // so a small deque beats a map here. Removed as soon as it's empty.
+    private final Map<UUID, ArrayDeque<TpaRequest>> requests = new HashMap<>();
+    // Sender -> receivers with a pending request from them, to clean up when the sender quits
+    private final Map<UUID, Set<UUID>> outgoing = new HashMap<>();
+    private static final int REQUEST_TIMEOUT_SECONDS = 60;
     
-    // Last Locations for /back: UUID -> Location
-    private final Map<UUID, Location> lastLocations = new HashMap<>();
+    // Last locations for /back, newest first, online players only
+    private final BackHistory backHistory = new BackHistory();
     
-    // TPA Toggle (Ignore list or global toggle)
+    // TPA Toggle (Ignore list or global toggle). Online players only, stored in player_settings.
     private final Set<UUID> tpaDisabled = new HashSet<>();
     private final Map<UUID, Set<UUID>> ignoredPlayers = new HashMap<>();
-    private final Map<UUID, Long> cooldowns = new HashMap<>();
+    // Players whose /back history changed since it was loaded, written on quit
+    private final Set<UUID> backDirty = new HashSet<>();
+    // Sender -> current cooldown. Entries are dropped by the expiry wheel once they run out.
+    private final Map<UUID, CooldownEnd> cooldowns = new HashMap<>();
+
+    // Request timeouts and cooldown ends, all expired by one sweep
+    private final ExpiryWheel<Object> expiries;
 
     public enum RequestType {
         TPA, // Sender wants to tp to Receiver
@@ -43,27 +58,40 @@ public class TpaManager {
 
     public static class TpaRequest {
         public final UUID sender;
+        public final UUID receiver;
         public final RequestType type;
         public final long timestamp;
 
-        public TpaRequest(UUID sender, RequestType type) {
+        public TpaRequest(UUID sender, UUID receiver, RequestType type) {
             this.sender = sender;
+            this.receiver = receiver;
             this.type = type;
             this.timestamp = System.currentTimeMillis();
         }
     }
 
+    // Cooldown end of one sender, scheduled in the wheel next to the requests
+    private static final class CooldownEnd {
+        final UUID sender;
+        final long end;
+
+        CooldownEnd(UUID sender, long end) {
+            this.sender = sender;
+            this.end = end;
+        }
+    }
+
     public TpaManager(HomesPlugin plugin) {
         this.plugin = plugin;
+        this.expiries = new ExpiryWheel<>(plugin, this::expire);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
     public void sendRequest(Player sender, Player receiver, RequestType type) {
         // Cooldown check
-        if (cooldowns.containsKey(sender.getUniqueId())) {
-            long lastUse = cooldowns.get(sender.getUniqueId());
-            int cooldownTime = plugin.getConfig().getInt("settings.tpa.cooldown", 60);
-            long timeLeft = (lastUse + (cooldownTime * 1000)) - System.currentTimeMillis();
-            
+        CooldownEnd cooldownEnd = cooldowns.get(sender.getUniqueId());
+        if (cooldownEnd != null) {
+            long timeLeft = cooldownEnd.end - System.currentTimeMillis();
             if (timeLeft > 0) {
                 sender.sendMessage(plugin.getMessage("tpa-cooldown").replace("{seconds}", String.valueOf(timeLeft / 1000)));
                 return;
@@ -83,10 +111,21 @@ public class TpaManager {
         // If receiver has auto-accept enabled... (Not storing this yet, assume command logic handles or add field)
         // For now standard request flow.
 
-        requests.computeIfAbsent(receiver.getUniqueId(), k -> new HashMap<>()).put(sender.getUniqueId(), new TpaRequest(sender.getUniqueId(), type));
+        // A repeated request from the same sender replaces the old one and moves to the front
+        TpaRequest request = new TpaRequest(sender.getUniqueId(), receiver.getUniqueId(), type);
+        ArrayDeque<TpaRequest> pending = requests.computeIfAbsent(receiver.getUniqueId(), k -> new ArrayDeque<>(2));
+        removeFrom(pending, sender.getUniqueId());
+        pending.addFirst(request);
+        outgoing.computeIfAbsent(sender.getUniqueId(), k -> new HashSet<>()).add(receiver.getUniqueId());
+        expiries.schedule(request, REQUEST_TIMEOUT_SECONDS);
 
         // Update cooldown
-        cooldowns.put(sender.getUniqueId(), System.currentTimeMillis());
+        int cooldownSeconds = plugin.getSettings().tpaCooldownSeconds;
+        if (cooldownSeconds > 0) {
+            CooldownEnd cooldown = new CooldownEnd(sender.getUniqueId(), System.currentTimeMillis() + cooldownSeconds * 1000L);
+            cooldowns.put(sender.getUniqueId(), cooldown);
+            expiries.schedule(cooldown, cooldownSeconds);
+        }
 
         sender.sendMessage(plugin.getMessage("tpa-sent").replace("{player}", receiver.getName()));
         
@@ -114,48 +153,26 @@ public class TpaManager {
         
         receiver.spigot().sendMessage(accept, space, deny);
         receiver.sendMessage(plugin.getMessage("tpa-info")); // Keep old info message as fallback/hint
-        
-        // Expire after 60 seconds
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (requests.containsKey(receiver.getUniqueId()) && requests.get(receiver.getUniqueId()).containsKey(sender.getUniqueId())) {
-                    requests.get(receiver.getUniqueId()).remove(sender.getUniqueId());
-                    if (sender.isOnline()) sender.sendMessage(plugin.getMessage("tpa-expired-sender").replace("{player}", receiver.getName()));
-                    if (receiver.isOnline()) receiver.sendMessage(plugin.getMessage("tpa-expired-receiver").replace("{player}", sender.getName()));
-                }
-            }
-        }.runTaskLater(plugin, 20 * 60);
     }
 
     public void acceptRequest(Player receiver) {
-        if (!requests.containsKey(receiver.getUniqueId()) || requests.get(receiver.getUniqueId()).isEmpty()) {
+        ArrayDeque<TpaRequest> pending = requests.get(receiver.getUniqueId());
+        if (pending == null) {
             receiver.sendMessage(plugin.getMessage("tpa-no-request"));
             return;
         }
 
-        // Get the most recent request by sorting timestamps
-        Map<UUID, TpaRequest> pending = requests.get(receiver.getUniqueId());
-        TpaRequest latest = null;
-        
-        for (TpaRequest req : pending.values()) {
-            if (latest == null || req.timestamp > latest.timestamp) {
-                latest = req;
-            }
-        }
-        
-        if (latest != null) {
-            acceptRequest(receiver, latest.sender);
-        }
+        // Newest request is always at the front
+        acceptRequest(receiver, pending.peekFirst().sender);
     }
     
     public void acceptRequest(Player receiver, UUID senderUuid) {
-        if (!requests.containsKey(receiver.getUniqueId()) || !requests.get(receiver.getUniqueId()).containsKey(senderUuid)) {
+        TpaRequest req = removeRequest(receiver.getUniqueId(), senderUuid);
+        if (req == null) {
             receiver.sendMessage(plugin.getMessage("tpa-no-request")); // or specific message
             return;
         }
 
-        TpaRequest req = requests.get(receiver.getUniqueId()).remove(senderUuid);
         Player sender = Bukkit.getPlayer(senderUuid);
 
         if (sender == null || !sender.isOnline()) {
@@ -179,14 +196,15 @@ public class TpaManager {
     }
 
     public void denyRequest(Player receiver) {
-        if (!requests.containsKey(receiver.getUniqueId()) || requests.get(receiver.getUniqueId()).isEmpty()) {
+        ArrayDeque<TpaRequest> pending = requests.get(receiver.getUniqueId());
+        if (pending == null) {
             receiver.sendMessage(plugin.getMessage("tpa-no-request"));
             return;
         }
         
-        // Deny all or one? Usually one.
-        UUID senderUuid = requests.get(receiver.getUniqueId()).keySet().iterator().next();
-        requests.get(receiver.getUniqueId()).remove(senderUuid);
+        // Deny the newest one
+        UUID senderUuid = pending.peekFirst().sender;
+        removeRequest(receiver.getUniqueId(), senderUuid);
         
         receiver.sendMessage(plugin.getMessage("tpa-request-denied"));
         Player sender = Bukkit.getPlayer(senderUuid);
@@ -202,36 +220,194 @@ public class TpaManager {
             return;
         }
         
-        if (requests.containsKey(target.getUniqueId()) && requests.get(target.getUniqueId()).containsKey(sender.getUniqueId())) {
-            requests.get(target.getUniqueId()).remove(sender.getUniqueId());
+        if (removeRequest(target.getUniqueId(), sender.getUniqueId()) != null) {
             sender.sendMessage(plugin.getMessage("tpa-cancelled"));
         } else {
             sender.sendMessage(plugin.getMessage("tpa-no-target-request"));
         }
     }
 
+    // Remove a pending request, dropping the receiver's deque and the sender's index entry when they become empty
+    private TpaRequest removeRequest(UUID receiver, UUID sender) {
+        ArrayDeque<TpaRequest> pending = requests.get(receiver);
+        if (pending == null) return null;
+        TpaRequest removed = removeFrom(pending, sender);
+        if (removed == null) return null;
+        if (pending.isEmpty()) {
+            requests.remove(receiver);
+        }
+        Set<UUID> targets = outgoing.get(sender);
+        if (targets != null) {
+            targets.remove(receiver);
+            if (targets.isEmpty()) outgoing.remove(sender);
+        }
+        return removed;
+    }
+
+    private static TpaRequest removeFrom(ArrayDeque<TpaRequest> pending, UUID sender) {
+        Iterator<TpaRequest> it = pending.iterator();
+        while (it.hasNext()) {
+            TpaRequest request = it.next();
+            if (request.sender.equals(sender)) {
+                it.remove();
+                return request;
+            }
+        }
+        return null;
+    }
+
+    // Called by the expiry wheel. Requests and cooldowns that were already resolved are ignored.
+    private void expire(Object item) {
+        if (item instanceof CooldownEnd) {
+            CooldownEnd cooldown = (CooldownEnd) item;
+            // A newer cooldown has its own entry in the wheel
+            if (cooldowns.get(cooldown.sender) != cooldown) return;
+            long left = cooldown.end - System.currentTimeMillis();
+            if (left > 0) {
+                // Wheel slots are 1s, so this can fire up to a second early; wait out the rest
+                expiries.schedule(cooldown, (int) ((left + 999) / 1000));
+            } else {
+                cooldowns.remove(cooldown.sender);
+            }
+            return;
+        }
+
+        TpaRequest request = (TpaRequest) item;
+        ArrayDeque<TpaRequest> pending = requests.get(request.receiver);
+        // Identity check: accepted, denied, cancelled or replaced requests are no longer in the deque
+        if (pending == null || !containsExact(pending, request)) return;
+        removeRequest(request.receiver, request.sender);
+
+        Player sender = Bukkit.getPlayer(request.sender);
+        Player receiver = Bukkit.getPlayer(request.receiver);
+        if (sender != null && receiver != null) {
+            sender.sendMessage(plugin.getMessage("tpa-expired-sender").replace("{player}", receiver.getName()));
+            receiver.sendMessage(plugin.getMessage("tpa-expired-receiver").replace("{player}", sender.getName()));
+        }
+    }
+
+    private static boolean containsExact(ArrayDeque<TpaRequest> pending, TpaRequest request) {
+        for (TpaRequest candidate : pending) {
+            if (candidate == request) return true;
+        }
+        return false;
+    }
+
+    // Requests to or from a player that left can never be accepted
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        ArrayDeque<TpaRequest> incoming = requests.remove(uuid);
+        if (incoming != null) {
+            for (TpaRequest request : incoming) {
+                Set<UUID> targets = outgoing.get(request.sender);
+                if (targets != null) {
+                    targets.remove(uuid);
+                    if (targets.isEmpty()) outgoing.remove(request.sender);
+                }
+            }
+        }
+        Set<UUID> targets = outgoing.remove(uuid);
+        if (targets != null) {
+            for (UUID receiver : targets) {
+                ArrayDeque<TpaRequest> pending = requests.get(receiver);
+                if (pending == null) continue;
+                removeFrom(pending, uuid);
+                if (pending.isEmpty()) requests.remove(receiver);
+            }
+        }
+        // The cooldown stays until it runs out, so relogging doesn't skip it
+
+        // Store the /back history with the other settings and drop everything kept for this player
+        if (backDirty.remove(uuid)) {
+            saveSettings(uuid);
+        }
+        backHistory.remove(uuid);
+        tpaDisabled.remove(uuid);
+        ignoredPlayers.remove(uuid);
+    }
+
+    // Stored settings read at login together with the homes (see HomeManager.preloadHomes)
+    public void loadSettings(UUID uuid, PlayerSettings stored) {
+        if (stored.tpaDisabled()) {
+            tpaDisabled.add(uuid);
+        } else {
+            tpaDisabled.remove(uuid);
+        }
+        if (stored.ignored().isEmpty()) {
+            ignoredPlayers.remove(uuid);
+        } else {
+            ignoredPlayers.put(uuid, new HashSet<>(stored.ignored()));
+        }
+        backHistory.load(uuid, stored.backHistory(), plugin.getSettings().backHistorySize);
+        backDirty.remove(uuid);
+    }
+
+    // Queue the player's current settings on the write-behind queue; repeated saves coalesce
+    private void saveSettings(UUID uuid) {
+        Set<UUID> ignored = ignoredPlayers.get(uuid);
+        PlayerSettings snapshot = new PlayerSettings(tpaDisabled.contains(uuid),
+                ignored == null ? Collections.emptySet() : new HashSet<>(ignored),
+                backHistory.export(uuid));
+        plugin.getHomeManager().saveSettings(uuid, snapshot);
+    }
+
+    // On disable, before the write queue drains: the /back history of everyone still online
+    public void saveAll() {
+        for (UUID uuid : backDirty) {
+            saveSettings(uuid);
+        }
+        backDirty.clear();
+    }
+
+    public int getPendingRequests() {
+        int count = 0;
+        for (ArrayDeque<TpaRequest> pending : requests.values()) {
+            count += pending.size();
+        }
+        return count;
+    }
+
+    public int getScheduledExpiries() {
+        return expiries.size();
+    }
+
     public void saveLastLocation(Player player) {
+        saveLastLocation(player, player.getLocation());
+    }
+
+    // e.g. the origin of a teleport that has just completed, the player is already elsewhere
+    public void saveLastLocation(Player player, Location loc) {
         // Check config if we should save
-        if (plugin.getConfig().getBoolean("settings.back.enabled", true)) {
-             lastLocations.put(player.getUniqueId(), player.getLocation());
+        PluginSettings settings = plugin.getSettings();
+        if (settings.backEnabled) {
+             backHistory.push(player.getUniqueId(), loc, settings.backHistorySize);
+             backDirty.add(player.getUniqueId());
         }
     }
 
     public void teleportBack(Player player) {
-        if (lastLocations.containsKey(player.getUniqueId())) {
-            Location loc = lastLocations.get(player.getUniqueId());
-            // Use TeleportManager for consistent behavior (sound, warmup if configured)
-            // TeleportManager calls tpaManager.saveLastLocation() internally, which updates lastLocations with current pos.
-            // This effectively creates a "swap" behavior for /back, which is desired.
-            // No infinite loop risk because TeleportManager just calls saveLastLocation (put into map), not teleportBack recursively.
-            
-            plugin.getTeleportManager().teleport(player, loc);
-            player.sendMessage(plugin.getMessage("back-success"));
+        // Each /back steps one entry further back; the teleport itself isn't recorded,
+        // otherwise the next /back would just return to where it started
+        UUID uuid = player.getUniqueId();
+        Location loc = backHistory.peek(uuid);
+        backDirty.add(uuid);
+        if (loc != null) {
+            // The entry is only used up once the player actually got there, not on a cancelled warmup
+            plugin.getTeleportManager().teleport(player, loc, false, () -> {
+                backHistory.remove(uuid, loc);
+                backDirty.add(uuid);
+                player.sendMessage(plugin.getMessage("back-success"));
+            });
         } else {
             player.sendMessage(plugin.getMessage("back-no-location"));
         }
     }
 
+    public BackHistory getBackHistory() {
+        return backHistory;
+    }
+
     public void toggleTpa(Player player) {
         if (tpaDisabled.contains(player.getUniqueId())) {
             tpaDisabled.remove(player.getUniqueId());
@@ -240,6 +416,7 @@ public class TpaManager {
             tpaDisabled.add(player.getUniqueId());
             player.sendMessage(plugin.getMessage("tpa-toggle-off"));
         }
+        saveSettings(player.getUniqueId());
     }
 
     public void ignorePlayer(Player player, String targetName) {
@@ -255,6 +432,7 @@ public class TpaManager {
             ignoredPlayers.get(player.getUniqueId()).add(target.getUniqueId());
             player.sendMessage(plugin.getMessage("tpa-ignore-add").replace("{player}", target.getName()));
         }
+        saveSettings(player.getUniqueId());
     }
     
     public boolean isIgnored(UUID receiver, UUID sender) {
@@ -0,0 +1,167 @@
+package com.example.homes.manager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.example.homes.HomesPlugin;
+
+/**
+ * All pending teleport warmups, driven by one task that only runs while there is something to wait for.
+ * Movement is checked every tick against the start position with a squared distance,
+ * reading the player's position into a reused Location so nothing is allocated per check.
+ */
+public class WarmupScheduler {
+
+    private static final double MOVE_TOLERANCE_SQUARED = 0.1 * 0.1;
+    private static final int TICKS_PER_SECOND = 20;
+
+    private static final class Warmup {
+        final Player player;
+        final World world;
+        final double x, y, z;
+        final Runnable onFinish;
+        final Runnable onCancel;
+        int secondsLeft;
+        long nextCountTick;
+
+        Warmup(Player player, Location start, int seconds, Runnable onFinish, Runnable onCancel, long nextCountTick) {
+            this.player = player;
+            this.world = start.getWorld();
+            this.x = start.getX();
+            this.y = start.getY();
+            this.z = start.getZ();
+            this.onFinish = onFinish;
+            this.onCancel = onCancel;
+            this.secondsLeft = seconds;
+            this.nextCountTick = nextCountTick;
+        }
+    }
+
+    private final HomesPlugin plugin;
+    private final SoundManager soundManager;
+
+    // One entry per player, a new warmup replaces the pending one
+    private final Map<UUID, Warmup> warmups = new LinkedHashMap<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+    // Finished warmups run after the sweep, their callbacks may start new warmups
+    private final List<Runnable> finished = new ArrayList<>();
+    private BukkitTask task;
+    private long tick;
+
+    private long started;
+    private long completed;
+    private long cancelled;
+
+    public WarmupScheduler(HomesPlugin plugin, SoundManager soundManager) {
+        this.plugin = plugin;
+        this.soundManager = soundManager;
+    }
+
+    // Run onFinish after seconds, unless the player moves or leaves first (then onCancel). Main thread only.
+    public void start(Player player, int seconds, Runnable onFinish, Runnable onCancel) {
+        Location start = player.getLocation(scratch);
+        Warmup previous = warmups.put(player.getUniqueId(), new Warmup(player, start, seconds, onFinish, onCancel, tick + 1));
+        if (previous != null) {
+            cancelled(previous);
+        }
+        started++;
+
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    public boolean cancel(UUID uuid) {
+        Warmup warmup = warmups.remove(uuid);
+        if (warmup == null) return false;
+        cancelled(warmup);
+        return true;
+    }
+
+    private void cancelled(Warmup warmup) {
+        cancelled++;
+        if (warmup.onCancel != null) {
+            warmup.onCancel.run();
+        }
+    }
+
+    public boolean isWarmingUp(UUID uuid) {
+        return warmups.containsKey(uuid);
+    }
+
+    private void tick() {
+        long now = ++tick;
+        Iterator<Warmup> it = warmups.values().iterator();
+        while (it.hasNext()) {
+            Warmup warmup = it.next();
+            Player player = warmup.player;
+            if (!player.isOnline()) {
+                it.remove();
+                cancelled(warmup);
+                continue;
+            }
+
+            // Check movement
+            Location loc = player.getLocation(scratch);
+            double dx = loc.getX() - warmup.x;
+            double dy = loc.getY() - warmup.y;
+            double dz = loc.getZ() - warmup.z;
+            if (loc.getWorld() != warmup.world || dx * dx + dy * dy + dz * dz > MOVE_TOLERANCE_SQUARED) {
+                player.sendMessage(plugin.getMessage("teleport-cancelled"));
+                soundManager.play(player, "teleport-fail");
+                it.remove();
+                cancelled(warmup);
+                continue;
+            }
+
+            if (now < warmup.nextCountTick) continue;
+            if (warmup.secondsLeft <= 0) {
+                it.remove();
+                completed++;
+                finished.add(warmup.onFinish);
+            } else {
+                player.sendTitle(ChatColor.GREEN + String.valueOf(warmup.secondsLeft), "", 0, 20, 0);
+                soundManager.play(player, "teleport-count");
+                warmup.secondsLeft--;
+                warmup.nextCountTick = now + TICKS_PER_SECOND;
+            }
+        }
+
+        for (int i = 0; i < finished.size(); i++) {
+            finished.get(i).run();
+        }
+        finished.clear();
+
+        // Nothing left to wait for, stop until the next warmup
+        if (warmups.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public int getActive() {
+        return warmups.size();
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+}